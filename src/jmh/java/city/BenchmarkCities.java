@@ -0,0 +1,20 @@
+package city;
+
+/**
+ * Cities of several sizes for the benchmarks. 42 is V-city itself, any other size is a
+ * network of that many intersections from {@link CityGenerator}
+ */
+public class BenchmarkCities {
+    public static final String V_CITY = "42";
+
+    private BenchmarkCities() {
+    }
+
+    /**
+     * @param size the number of intersections, see the class documentation
+     * @return a new city
+     */
+    public static City of(String size) {
+        return size.equals(V_CITY) ? new City() : new CityGenerator(Integer.parseInt(size), 1).city();
+    }
+}
@@ -0,0 +1,70 @@
+package city;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.shortestPath.DijkstraUndirectedSP;
+import utils.shortestPath.Path;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shortest path lookups through the cache of {@link City} and the routes a passenger
+ * can take from the taxi center
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CityBenchmark {
+    @Param({"42", "400", "2500"})
+    public String intersections;
+
+    private City city;
+    private int source;
+
+    @Setup
+    public void setUp() {
+        city = BenchmarkCities.of(intersections);
+        source = city.taxiCenter;
+        city.getShortestPaths(city.G, source);
+    }
+
+    /**
+     * Empties the cache before every call of {@link #shortestPathsUncached()}
+     */
+    @State(Scope.Thread)
+    public static class EmptyCache {
+        @Setup(Level.Invocation)
+        public void clear(CityBenchmark benchmark) {
+            benchmark.city.G.shortestPaths().clear();
+        }
+    }
+
+    @Benchmark
+    public DijkstraUndirectedSP shortestPathsCached() {
+        return city.getShortestPaths(city.G, source);
+    }
+
+    @Benchmark
+    public DijkstraUndirectedSP shortestPathsUncached(EmptyCache cache) {
+        return city.getShortestPaths(city.G, source);
+    }
+
+    @Benchmark
+    public ArrayList<Path> routes() {
+        return city.getRoutes(city.G, source, 3.5);
+    }
+}
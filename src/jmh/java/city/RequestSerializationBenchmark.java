@@ -0,0 +1,67 @@
+package city;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of a proposal through Java serialization, as ACLMessage.setContentObject
+ * did, and through {@link RequestCodec}. An auction with &n; taxis costs about 2n + 1
+ * round trips: the CFP read by every taxi, a proposal from every taxi and the award
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestSerializationBenchmark {
+    @Param({"42", "400", "2500"})
+    public String intersections;
+
+    private City city;
+    private Request request;
+
+    @Setup
+    public void setUp() {
+        city = BenchmarkCities.of(intersections);
+        request = new Request(city.intersections.get(city.taxiCenter), new DropoffPoint(city.G.V() - 1), 1234);
+        request.callTime = 86400;
+        request.bid = new Bid();
+        request.bid.payOff = 123.45;
+        request.bid.company = 12.3;
+    }
+
+    private static byte[] serialize(Request request) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(request);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Request javaSerialization() throws IOException, ClassNotFoundException {
+        return (Request) new ObjectInputStream(new ByteArrayInputStream(serialize(request))).readObject();
+    }
+
+    @Benchmark
+    public Request codec() {
+        return RequestCodec.decode(RequestCodec.encode(request), city);
+    }
+}
@@ -0,0 +1,84 @@
+package utils.agentMethods;
+
+import agents.Taxi;
+import city.BenchmarkCities;
+import city.Bid;
+import city.City;
+import city.DropoffPoint;
+import city.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.simulation.RandomStream;
+import utils.simulation.Timer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work of a taxi on every CFP: pricing the job and checking it fits the shift. The
+ * requests go from random intersections to random nodes, their shortest paths are
+ * cached before the measurement as they are in a running simulation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaxiMethodsBenchmark {
+    @Param({"42", "400", "2500"})
+    public String intersections;
+
+    private City city;
+    private Taxi taxi;
+    private Request[] requests;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        city = BenchmarkCities.of(intersections);
+        taxi = new Taxi();
+        taxi.vCity = city;
+        taxi.currentLocation = new DropoffPoint(city.taxiCenter);
+        taxi.runtime = new Timer(City.getFileStartTime(), 1);
+        taxi.random = RandomStream.of(1, "taxi", 1);
+        Random random = new Random(42);
+        requests = new Request[1024];
+        for (int i = 0; i < requests.length; i++) {
+            int origin;
+            do {
+                origin = random.nextInt(city.intersections.size());
+            } while (city.intersections.get(origin).index != origin);
+            requests[i] = new Request(city.intersections.get(origin), new DropoffPoint(random.nextInt(city.G.V())), i);
+            // Fill the cache up front, the warm-up is too short to do it on the larger graphs
+            city.getShortestPaths(city.G, requests[i].destination.index);
+            city.getShortestPaths(city.G, origin);
+        }
+        city.getShortestPaths(city.G, taxi.currentLocation.index);
+    }
+
+    private Request nextRequest() {
+        Request request = requests[next];
+        next = (next + 1) & (requests.length - 1);
+        return request;
+    }
+
+    @Benchmark
+    public Bid bid() {
+        return TaxiMethods.getBid(city, taxi, taxi.currentLocation, nextRequest());
+    }
+
+    @Benchmark
+    public int jobCompletionTime() {
+        return TaxiMethods.getJobCompletionTime(city, taxi, nextRequest());
+    }
+}
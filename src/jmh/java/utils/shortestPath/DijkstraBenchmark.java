@@ -0,0 +1,43 @@
+package utils.shortestPath;
+
+import city.BenchmarkCities;
+import city.City;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shortest paths from the taxi center to every node, computed from scratch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DijkstraBenchmark {
+    @Param({"42", "400", "2500"})
+    public String intersections;
+
+    private City city;
+
+    @Setup
+    public void setUp() {
+        city = BenchmarkCities.of(intersections);
+    }
+
+    @Benchmark
+    public DijkstraUndirectedSP construct() {
+        return new DijkstraUndirectedSP(city.G, city.taxiCenter);
+    }
+}
@@ -0,0 +1,42 @@
+package utils.simulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing the arrival of the next call and looking up the call rate, at times that walk
+ * through the week of the demand schedule. The calls do not depend on the road network,
+ * so there is no graph size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallGenBenchmark {
+    private static final long WEEK = 7L * SimTime.DAY;
+    private double clock = 0;
+    private long now = 0;
+
+    @Benchmark
+    public double nextCall() {
+        clock = CallGen.nextCall(clock) % WEEK;
+        return clock;
+    }
+
+    @Benchmark
+    public double callsPerHour() {
+        now = (now + 997) % WEEK;
+        return CallGen.getCallsPerHour(now);
+    }
+}
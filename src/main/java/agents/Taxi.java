@@ -5,12 +5,16 @@ import behaviour.CheckStateBehavior;
 import city.*;
 import utils.agentMethods.TaxiMethods;
 import jade.core.Agent;
+import utils.log.Category;
+import utils.log.EventLog;
+import utils.log.Level;
+import utils.metrics.SimulationMetrics;
 import utils.misc.Activity;
 import utils.misc.Shift;
+import utils.simulation.RandomStream;
 import utils.simulation.Timer;
-
-import java.util.ArrayList;
-import java.util.Calendar;
+import utils.stats.TripStats;
+import utils.trace.TraceWriter;
 
 /**
  * Created by jherez on 6/11/16.
@@ -20,7 +24,7 @@ public class Taxi extends Agent {
     public City vCity;
     public DropoffPoint currentLocation;
     public DropoffPoint destination;
-    private ArrayList<Passenger> passengerHistory;
+    private long passengersCarried;
     public Passenger currentPassenger;
     private Shift shift;
     public Activity activity;
@@ -28,8 +32,14 @@ public class Taxi extends Agent {
     public Request confirmed_request;
     public Request last_request;
     public boolean won_last_round;
-    public int time_of_list_win;
+    public long time_of_list_win;
     public Timer runtime;
+    public RandomStream random;
+    public double chargeRatePerKilometer = TaxiMethods.CHARGE_RATE_PER_KILOMETER;
+    public double gasCostPerKilometer = TaxiMethods.GAS_COST_PER_KILOMETER;
+    public boolean commonRandomNumbers = false;
+    public TripStats trips;
+    public TraceWriter trace;
 
     protected void setup() {
         Object[] args = getArguments();
@@ -38,32 +48,48 @@ public class Taxi extends Agent {
         this.shift = (Shift) args[2];
         this.index = (Integer) args[3];
         this.runtime = (Timer) args[4];
+        this.random = (RandomStream) args[5];
+        if (args.length > 7) {
+            this.chargeRatePerKilometer = (Double) args[6];
+            this.gasCostPerKilometer = (Double) args[7];
+        }
+        if (args.length > 8)
+            this.commonRandomNumbers = (Boolean) args[8];
+        this.trips = args.length > 9 ? (TripStats) args[9] : new TripStats();
+        this.trace = args.length > 10 ? (TraceWriter) args[10] : null;
         this.activity = Activity.WAITING_FOR_JOB;
-        this.passengerHistory = new ArrayList<>();
+        this.passengersCarried = 0;
         this.currentPassenger = null;
         this.destination = null;
         this.won_last_round = false;
         this.time_of_list_win = 0;
-        System.out.println("Taxi-agent " + getAID().getName() + "is online");
+        SimulationMetrics.get().addTaxi(this);
+        EventLog.log(Level.INFO, Category.AGENT, runtime.now(), getLocalName(), "Taxi-agent online");
 //        testFunctionality();
         this.addBehaviour(new CheckStateBehavior(this));
         this.addBehaviour(new BidBehaviour(this));
     }
 
+    /**
+     * Returns the random numbers for the bid on &request;, see
+     * {@link utils.simulation.SimulationConfig#commonRandomNumbers}
+     *
+     * @param request Request see {@link Request}
+     * @return the random stream
+     */
+    public RandomStream bidRandom(Request request) {
+        return commonRandomNumbers ? random.substream(request.passengerID) : random;
+    }
+
     protected void takeDown() {
-        System.out.println("Taxi-agent " + getAID().getName() + "is offline");
+        SimulationMetrics.get().removeTaxi(this);
+        EventLog.log(Level.INFO, Category.AGENT, runtime.now(), getLocalName(), "Taxi-agent offline");
         // Make this agent terminate
         doDelete();
     }
 
     public int getElapsed() {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(runtime.getDate());
-        int hours = cal.get(Calendar.HOUR_OF_DAY);
-        int minutes = cal.get(Calendar.MINUTE);
-        int seconds = cal.get(Calendar.SECOND);
-
-        return (hours * 60 * 60) + (minutes * 60) + seconds;
+        return runtime.getSecondOfDay();
     }
 
     public void checkStatus() {
@@ -90,21 +116,15 @@ public class Taxi extends Agent {
     }
 
     public boolean getShitfStatus(int seconds) {
-        seconds = (seconds % (60 * 60 * 24));
-        boolean on_duty = false;
-
-        switch (this.shift) {
-            case TIME_3AM_TO_1PM:
-                on_duty = (seconds >= 3 * 3600 && seconds <= 13 * 3600);
-                break;
-            case TIME_6PM_TO_4AM:
-                on_duty = !(seconds >= 4 * 3600 && seconds <= 18 * 3600);
-                break;
-            case TIME_9AM_TO_7PM:
-                on_duty = (seconds >= 9 * 3600 && seconds <= 19 * 3600);
-                break;
-        }
-        return on_duty;
+        return this.shift.isOnDuty(seconds);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Shift getShift() {
+        return shift;
     }
 
     public void clear() {
@@ -112,7 +132,6 @@ public class Taxi extends Agent {
         this.vCity = null;
         this.currentLocation = null;
         this.destination = null;
-        this.passengerHistory = null;
         this.currentPassenger = null;
         this.shift = null;
         this.activity = null;
@@ -121,7 +140,14 @@ public class Taxi extends Agent {
 
     public void addPassenger(Passenger passenger) {
         this.currentPassenger = passenger;
-        this.passengerHistory.add(passenger);
+        this.passengersCarried++;
+    }
+
+    /**
+     * @return the number of passengers this taxi took a job for
+     */
+    public long getPassengersCarried() {
+        return passengersCarried;
     }
 
     public void addRequestToQueue(Request request) {
@@ -1,53 +1,155 @@
 package agents;
 
+import auction.AuctionMechanism;
+import auction.AuctionMechanisms;
+import auction.MechanismComparison;
+import auction.ProfitSharingRule;
+import behaviour.CallSchedulerBehaviour;
+import behaviour.ClockBehaviour;
 import behaviour.ManageCallBehaviour;
 import city.*;
 import jade.core.AID;
 import jade.core.Agent;
 import jade.wrapper.AgentController;
 import jade.wrapper.ContainerController;
+import jade.wrapper.ControllerException;
 import jade.wrapper.StaleProxyException;
+import utils.log.Category;
+import utils.log.EventLog;
+import utils.metrics.SimulationMetrics;
 import utils.misc.Shift;
 import utils.simulation.CallGen;
+import utils.simulation.CallSource;
+import utils.simulation.DemandSchedule;
+import utils.simulation.EventType;
+import utils.simulation.PoissonCallSource;
+import utils.simulation.PregeneratedCallSource;
+import utils.simulation.RandomStream;
+import utils.simulation.RunListener;
+import utils.simulation.RunResult;
+import utils.simulation.SimTime;
+import utils.simulation.SimulationConfig;
 import utils.simulation.Timer;
+import utils.simulation.TraceCallSource;
 import utils.simulation.StdRandom;
-import utils.io.In;
 import utils.io.Out;
+import utils.stats.Histogram;
+import utils.stats.Mser;
+import utils.stats.TripStats;
+import utils.trace.TraceWriter;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class TaxiCoordinator extends Agent {
-    private static final Out out = new Out("src/main/resources/output.txt");
+    private static final long AUCTION_HIGHEST_MILLIS = 60 * 60 * 1000;
+    private Out out;
     public City vCity;
-    public Date nextTime = null;
     public int calls = 0;
     private int totalTaxis = 0;
     public final ArrayList<AID> lstTaxi = new ArrayList<>(0);
-    public Request lastRequest;
-    private ArrayList<Passenger> passengerArrayList;
+    public final HashMap<AID, Integer> taxiNumbers = new HashMap<>();
+    private final HashMap<AID, Shift> taxiShifts = new HashMap<>();
     public Timer runtime;
+    public SimulationConfig config;
+    public int lateReplies = 0;
+    public AuctionMechanism mechanism;
+    public ProfitSharingRule profitSharing;
+    public MechanismComparison comparison;
+    public CallSource callSource;
+    public RandomStream random;
+    private long seed;
+    private RunListener listener;
+    private RuntimeException failure;
+    private long startedMillis;
+    public long awarded = 0;
+    public long dropped = 0;
+    public double driverPayoff = 0;
+    public double companyPayoff = 0;
+    private double[] hourlyCompanyPayoff = new double[24];
+    private final long[] shiftAwards = new long[Shift.values().length];
+    private final double[] shiftDriverPayoff = new double[Shift.values().length];
+    private final double[] shiftCompanyPayoff = new double[Shift.values().length];
+    public final TripStats trips = new TripStats();
+    public final Histogram auctionMillis = new Histogram(AUCTION_HIGHEST_MILLIS);
+    public TraceWriter trace;
 
     public void out(String newLine) {
-        out.println(newLine);
+        if (out != null)
+            out.println(newLine);
     }
 
     public void close() {
-        out.close();
+        if (out != null)
+            out.close();
+        out = null;
     }
 
 
+    /**
+     * The optional agent arguments are the {@link SimulationConfig}, a {@link RunListener}
+     * that receives the results of the run and a {@link City} whose road network is
+     * shared, see {@link City#City(City)}. From the command line the only argument is
+     * the path of a call trace to replay. When the run cannot be set up the coordinator
+     * deletes itself and the listener gets a result with {@link RunResult#failure}
+     */
     protected void setup() {
-        In in = new In("src/main/resources/v_city.txt");
+        try {
+            start();
+        } catch (RuntimeException e) {
+            failure = e;
+            e.printStackTrace();
+            doDelete();
+        }
+    }
+
+    private void start() {
+        startedMillis = System.currentTimeMillis();
+        Object[] args = getArguments();
+        if (args != null && args.length > 0 && args[0] instanceof SimulationConfig) {
+            config = (SimulationConfig) args[0];
+        } else {
+            config = new SimulationConfig();
+            // From the command line the argument is the path of a call trace to replay
+            if (args != null && args.length > 0 && args[0] instanceof String)
+                config.callTrace = (String) args[0];
+        }
+        if (args != null && args.length > 1 && args[1] instanceof RunListener)
+            listener = (RunListener) args[1];
+        if (config.output != null)
+            out = new Out(config.output);
+        if (config.eventLog != null && EventLog.current() == null)
+            openEventLog();
+        if (config.trace != null)
+            trace = new TraceWriter(config.trace, config.traceCompression);
+        if (config.jmx)
+            SimulationMetrics.register();
+
+        seed = config.seed != 0 ? config.seed : StdRandom.getSeed();
+        random = RandomStream.of(seed, "coordinator", 0);
+        System.out.println("Seed: " + seed);
+        if (config.demandSchedule != null)
+            CallGen.setSchedule(DemandSchedule.load(config.demandSchedule));
+        profitSharing = AuctionMechanisms.profitSharing(config);
+        mechanism = AuctionMechanisms.create(config.mechanism, config);
+        ArrayList<AuctionMechanism> compared = new ArrayList<>();
+        compared.add(mechanism);
+        for (String name : config.shadowMechanisms)
+            compared.add(AuctionMechanisms.create(name, config));
+        comparison = new MechanismComparison(compared);
 
         System.out.println("Init of file");
         System.out.println("Create City");
 
-        vCity = new City();
-        vCity.generateCity(in);
-        passengerArrayList = new ArrayList<>();
+        if (args != null && args.length > 2 && args[2] instanceof City)
+            vCity = new City((City) args[2]);
+        else
+            vCity = new City();
+        vCity.setSeed(seed);
 
 
         System.out.println("Done creating city");
@@ -55,33 +157,173 @@ public class TaxiCoordinator extends Agent {
         System.out.println("Generate Random Call for one intersection");
 
 //        Timer runtime = new Timer(0,0,0,1); //Setting initial time
-        runtime = new Timer(City.getFileTime(), 1); //Setting initial time
+        runtime = new Timer(City.getFileStartTime(), config.tickSeconds); //Setting initial time
+        if (config.horizon > 0)
+            runtime.setHorizon(config.horizon);
 
-        // 1. Setting a next call Time
+        // 1. Setting the source of the calls
         generateSampleTaxis();
-        System.out.println("Setting next Call time");
-        nextTime = nextCall(runtime.getDate());
+        DemandSchedule demand = config.demandScale != 1 ? CallGen.getSchedule().scaled(config.demandScale)
+                : CallGen.getSchedule();
+        if (config.callTrace != null)
+            callSource = new TraceCallSource(config.callTrace, runtime.now(), config.traceTimeScale);
+        else if (config.pregenerateDemand)
+            callSource = new PregeneratedCallSource(vCity, demand, runtime.now(), config.demandBlock, seed,
+                    config.demandThreads > 0 ? config.demandThreads : Runtime.getRuntime().availableProcessors());
+        else
+            callSource = new PoissonCallSource(vCity, demand, runtime.now(), RandomStream.of(seed, "calls", 0));
 
-        addBehaviour(new ManageCallBehaviour(this));
+        // 2. Clock, call generation and auctions run as separate behaviours
+        ManageCallBehaviour auctions = new ManageCallBehaviour(this);
+        addBehaviour(new ClockBehaviour(this, auctions));
+        addBehaviour(new CallSchedulerBehaviour(this, auctions));
+        addBehaviour(auctions);
 
     }
 
-    protected void takeDown() {
-        System.out.println("Taxi-agent " + getAID().getName() + "is offline");
-        // Make this agent terminate
+    private void openEventLog() {
+        Category[] categories = null;
+        if (config.logCategories != null) {
+            categories = new Category[config.logCategories.length];
+            for (int i = 0; i < categories.length; i++)
+                categories[i] = Category.valueOf(config.logCategories[i].toUpperCase());
+        }
+        EventLog.open(config.eventLog, utils.log.Level.valueOf(config.logLevel.toUpperCase()), categories);
+        System.out.println("Logging events to " + config.eventLog);
+    }
+
+    /**
+     * Stops the simulation: the taxis are killed and the coordinator deletes itself
+     */
+    public void finish() {
+        System.out.println("(" + runtime.toString() + ")  Simulation horizon of " + config.horizon + "s reached");
+        ContainerController cc = getContainerController();
+        for (AID taxi : lstTaxi) {
+            try {
+                cc.getAgent(taxi.getLocalName()).kill();
+            } catch (ControllerException ex) {
+                Logger.getLogger(TaxiCoordinator.class.getName()).log(Level.WARNING, null, ex);
+            }
+        }
         doDelete();
     }
 
+    protected void takeDown() {
+        // The setup may have failed half way, so anything may be missing here
+        try {
+            if (runtime != null)
+                System.out.println("Simulated " + runtime.getElapsedSeconds() + "s, events handled: " + eventCounts());
+            System.out.println("Late replies discarded: " + lateReplies);
+            if (comparison != null)
+                System.out.print(comparison);
+            if (callSource != null) {
+                try {
+                    callSource.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            close();
+            if (trace != null) {
+                try {
+                    trace.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            EventLog.flush();
+            System.out.println("Taxi-agent " + getAID().getName() + "is offline");
+        } finally {
+            // A RunPool waits for the listener, it must hear of every run
+            if (listener != null) {
+                RunListener finished = listener;
+                listener = null;
+                finished.finished(result());
+            }
+            // Make this agent terminate
+            doDelete();
+        }
+    }
+
 
-    public void receiveCall(Passenger passenger, Intersection intersection) {
-        intersection.receiveCall(passenger);
-        this.passengerArrayList.add(passenger);
-        this.vCity.passengerArrayList.add(passenger);
-        System.out.println("TaxiCoordinator: Received a call from Passenger " + passenger.id);
+    /**
+     * Returns the totals of this run so far
+     *
+     * @return RunResult see {@link RunResult}
+     */
+    public RunResult result() {
+        RunResult result = new RunResult();
+        result.seed = seed;
+        result.failure = failure;
+        result.simulatedSeconds = runtime != null ? runtime.getElapsedSeconds() : 0;
+        result.wallMillis = System.currentTimeMillis() - startedMillis;
+        result.calls = calls;
+        result.awarded = awarded;
+        result.dropped = dropped;
+        result.lateReplies = lateReplies;
+        result.driverPayoff = driverPayoff;
+        result.companyPayoff = companyPayoff;
+        result.pickups = trips.getPickups();
+        result.meanWait = trips.getMeanWait();
+        result.waits = trips.getWaits();
+        result.shiftAwards = shiftAwards.clone();
+        result.shiftDriverPayoff = shiftDriverPayoff.clone();
+        result.shiftCompanyPayoff = shiftCompanyPayoff.clone();
+        result.trips = trips.getTrips();
+        result.auctionMillis = auctionMillis.copy();
+        int hours = (int) Math.min(hourlyCompanyPayoff.length, result.simulatedSeconds / SimTime.HOUR);
+        result.hourlyCompanyPayoff = Arrays.copyOf(hourlyCompanyPayoff, hours);
+        result.warmupHours = config.warmupTruncation ? Mser.truncation(result.hourlyCompanyPayoff, hours, config.mserBatch) : 0;
+        double sum = 0;
+        for (int h = result.warmupHours; h < hours; h++)
+            sum += result.hourlyCompanyPayoff[h];
+        result.companyPayoffPerHour = hours > result.warmupHours ? sum / (hours - result.warmupHours) : Double.NaN;
+        return result;
+    }
+
+    /**
+     * Adds the share of the company in an awarded job to the total and to the current hour
+     *
+     * @param payoff the payoff of the company
+     */
+    public void addCompanyPayoff(double payoff) {
+        companyPayoff += payoff;
+        int hour = (int) (runtime.getElapsedSeconds() / SimTime.HOUR);
+        if (hour >= hourlyCompanyPayoff.length)
+            hourlyCompanyPayoff = Arrays.copyOf(hourlyCompanyPayoff, Math.max(2 * hourlyCompanyPayoff.length, hour + 1));
+        hourlyCompanyPayoff[hour] += payoff;
+    }
+
+    /**
+     * Adds an awarded job to the totals of the shift of its taxi
+     *
+     * @param taxi    the taxi that won the job
+     * @param driver  the payoff of the driver
+     * @param company the payoff of the company
+     */
+    public void addShiftPayoff(AID taxi, double driver, double company) {
+        Shift shift = taxiShifts.get(taxi);
+        if (shift == null)
+            return;
+        shiftAwards[shift.ordinal()]++;
+        shiftDriverPayoff[shift.ordinal()] += driver;
+        shiftCompanyPayoff[shift.ordinal()] += company;
     }
 
-    public Date nextCall(Date currentTime) {
-        return CallGen.nextCall(currentTime);
+    private String eventCounts() {
+        StringBuilder counts = new StringBuilder();
+        for (EventType type : EventType.values()) {
+            if (counts.length() > 0)
+                counts.append(", ");
+            counts.append(type.name()).append('=').append(runtime.getFired(type));
+        }
+        return counts.toString();
+    }
+
+    public void receiveCall(Passenger passenger, Intersection intersection) {
+        intersection.receiveCall(passenger);
+        this.vCity.passengers.add(passenger);
+        EventLog.log(utils.log.Level.DEBUG, Category.CALL, runtime.now(), getLocalName(), "Received a call from Passenger {a}", passenger.id);
     }
 
     /**
@@ -93,7 +335,7 @@ public class TaxiCoordinator extends Agent {
     public int pickRandomIntersectionIndex(ArrayList<Intersection> intersections, int[] taxiCenter) {
         int index;
         do {
-            index = StdRandom.uniform(0, intersections.size() - 1);
+            index = random.uniform(0, intersections.size() - 1);
         } while (find(intersections.get(index).index, taxiCenter));
 
         return index;
@@ -109,7 +351,7 @@ public class TaxiCoordinator extends Agent {
     public int pickRandomDropoffIndex(ArrayList<DropoffPoint> dropoffPoints, int[] taxiCenter) {
         int index;
         do {
-            index = StdRandom.uniform(0, dropoffPoints.size() - 1);
+            index = random.uniform(0, dropoffPoints.size() - 1);
         } while (find(dropoffPoints.get(index).index, taxiCenter));
 
         return index;
@@ -124,27 +366,19 @@ public class TaxiCoordinator extends Agent {
         return false;
     }
 
-    /**
-     * This method check if this Intersection should process a pending call
-     *
-     * @param nextCall    Date for next Call
-     * @param currentTime Date of current time
-     * @return true when there is a call to be trigger
-     * false is there is no pending call to specific intersection
-     */
-    public boolean isCallAvailable(Date nextCall, Date currentTime) {
-        return nextCall != null && nextCall.before(currentTime);
-    }
-
     private void addTaxi(DropoffPoint point, Shift shift) {
-        Object[] params = {this.vCity, point, shift, totalTaxis + 1, runtime};
+        Object[] params = {this.vCity, point, shift, totalTaxis + 1, runtime, RandomStream.of(seed, "taxi", totalTaxis + 1),
+                config.chargeRatePerKilometer, config.gasCostPerKilometer, config.commonRandomNumbers, trips, trace};
         ContainerController cc = getContainerController();
         String name;
         try {
-            name = "smith" + totalTaxis++;
+            name = config.agentPrefix + "smith" + totalTaxis++;
             AgentController new_agent = cc.createNewAgent(name, "agents.Taxi", params);
             new_agent.start();
-            lstTaxi.add(new AID(name, AID.ISLOCALNAME));
+            AID aid = new AID(name, AID.ISLOCALNAME);
+            lstTaxi.add(aid);
+            taxiNumbers.put(aid, totalTaxis);
+            taxiShifts.put(aid, shift);
             //taxiDrivers.add((Taxi)params[0]);
         } catch (StaleProxyException ex) {
             Logger.getLogger(TaxiCoordinator.class.getName()).log(Level.SEVERE, null, ex);
@@ -152,14 +386,11 @@ public class TaxiCoordinator extends Agent {
     }
 
     private void generateSampleTaxis() {
-        for (int i = 1; i <= 4; i++) {
-            this.addTaxi(new DropoffPoint(this.vCity.taxiCenter), Shift.TIME_3AM_TO_1PM);
-        }
-        for (int i = 1; i <= 4; i++) {
-            this.addTaxi(new DropoffPoint(this.vCity.taxiCenter), Shift.TIME_6PM_TO_4AM);
-        }
-        for (int i = 1; i <= 4; i++) {
-            this.addTaxi(new DropoffPoint(this.vCity.taxiCenter), Shift.TIME_9AM_TO_7PM);
+        for (Shift shift : Shift.values()) {
+            int taxis = shift.ordinal() < config.taxisPerShift.length ? config.taxisPerShift[shift.ordinal()] : 0;
+            for (int i = 1; i <= taxis; i++) {
+                this.addTaxi(new DropoffPoint(this.vCity.taxiCenter), shift);
+            }
         }
     }
 
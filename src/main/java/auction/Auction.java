@@ -0,0 +1,88 @@
+package auction;
+
+import city.Request;
+import utils.misc.Activity;
+import utils.simulation.SimulationConfig;
+
+import java.util.ArrayList;
+
+/**
+ * State of a single call for proposals sent by the coordinator. The auction
+ * closes when either the quorum of replies is reached or one of the deadlines
+ * of the {@link SimulationConfig} expires, whichever happens first.
+ * <p>
+ * Several auctions can be open at the same time, each one is identified by the
+ * reply-with value of its CFP and, once awarded, by the reply-with value of the
+ * ACCEPT_PROPOSAL sent to the winner
+ */
+public class Auction {
+    public final String id;
+    public final Request request;
+    public final int invited;
+    public final long openedAt;
+    public final long openedAtMillis;
+    public final long openedSeq;
+    public final int round;
+    public final ArrayList<Request> bids = new ArrayList<>();
+    public int replies = 0;
+    public Activity activity = Activity.WAITING_FOR_BIDS;
+    public String awardId;
+    public long awardedAtMillis;
+    public Request winner;
+
+    /**
+     * @param id        the reply-with value of the CFP, replies are matched against it
+     * @param request   the request being auctioned
+     * @param invited   the number of taxis the CFP was sent to
+     * @param openedAt  the simulated second the CFP was sent
+     * @param openedSeq the number of awards made by the coordinator when the CFP was sent
+     * @param round     how many times the request was auctioned before
+     */
+    public Auction(String id, Request request, int invited, long openedAt, long openedSeq, int round) {
+        this.id = id;
+        this.request = request;
+        this.invited = invited;
+        this.openedAt = openedAt;
+        this.openedAtMillis = System.currentTimeMillis();
+        this.openedSeq = openedSeq;
+        this.round = round;
+    }
+
+    /**
+     * Returns the number of replies needed to close this auction before the deadline
+     *
+     * @param config SimulationConfig see {@link SimulationConfig}
+     * @return the quorum
+     */
+    public int quorum(SimulationConfig config) {
+        if (config.bidQuorum <= 0 || config.bidQuorum > invited)
+            return invited;
+        return config.bidQuorum;
+    }
+
+    /**
+     * Checks whether the auction should stop accepting replies
+     *
+     * @param config SimulationConfig see {@link SimulationConfig}
+     * @param now    the current simulated second
+     * @return true when the quorum is reached or a deadline has expired
+     */
+    public boolean isClosed(SimulationConfig config, long now) {
+        if (replies >= quorum(config))
+            return true;
+        if (now - openedAt >= config.bidDeadline)
+            return true;
+        return config.bidDeadlineMillis > 0
+                && System.currentTimeMillis() - openedAtMillis >= config.bidDeadlineMillis;
+    }
+
+    /**
+     * Returns the simulated seconds this auction has been open
+     *
+     * @param now the current simulated second
+     * @return the auction latency
+     */
+    public long latency(long now) {
+        return now - openedAt;
+    }
+}
@@ -0,0 +1,28 @@
+package auction;
+
+import city.Request;
+
+import java.util.List;
+
+/**
+ * Decides the winner of an auction and what it is paid. Taxis bid the payoff they ask
+ * for a request, so every mechanism is a reverse auction where the lowest ask wins.
+ * <p>
+ * Implementations must not modify the bids, the same bid vector can be evaluated by
+ * several mechanisms, see {@link MechanismComparison}
+ */
+public interface AuctionMechanism {
+
+    /**
+     * @return the name used in configurations and reports
+     */
+    String getName();
+
+    /**
+     * Picks the winner among &bids; and prices the job
+     *
+     * @param bids the eligible bids of an auction
+     * @return the award or null when no bid is acceptable
+     */
+    Award award(List<Request> bids);
+}
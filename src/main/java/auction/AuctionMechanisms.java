@@ -0,0 +1,51 @@
+package auction;
+
+import utils.simulation.SimulationConfig;
+
+/**
+ * Creates the auction mechanisms named in a {@link SimulationConfig}
+ */
+public class AuctionMechanisms {
+
+    // don't instantiate
+    private AuctionMechanisms() {
+    }
+
+    /**
+     * Returns the profit sharing rule of the configuration
+     *
+     * @param config SimulationConfig see {@link SimulationConfig}
+     * @return the rule
+     */
+    public static ProfitSharingRule profitSharing(SimulationConfig config) {
+        switch (config.profitSharing) {
+            case "margin":
+                return new ProfitSharingRule.MarginShare(config.companyShare);
+            case "commission":
+                return new ProfitSharingRule.Commission(config.companyShare);
+            default:
+                throw new IllegalArgumentException("Unknown profit sharing rule " + config.profitSharing);
+        }
+    }
+
+    /**
+     * Creates a mechanism by name: "first-price" or "vickrey", optionally prefixed with
+     * "reserve-" to reject asks above &reservePrice;
+     *
+     * @param name   the name of the mechanism
+     * @param config SimulationConfig see {@link SimulationConfig}
+     * @return the mechanism
+     */
+    public static AuctionMechanism create(String name, SimulationConfig config) {
+        if (name.startsWith("reserve-"))
+            return new ReservePriceMechanism(create(name.substring("reserve-".length()), config), config.reservePrice);
+        switch (name) {
+            case "first-price":
+                return new FirstPriceMechanism(profitSharing(config));
+            case "vickrey":
+                return new VickreyMechanism(profitSharing(config));
+            default:
+                throw new IllegalArgumentException("Unknown auction mechanism " + name);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package auction;
+
+import city.Bid;
+import city.Request;
+
+/**
+ * Outcome of an {@link AuctionMechanism}: the winning bid and the final split of the
+ * fare between the taxi driver and the company
+ */
+public class Award {
+    public final Request winner;
+    public final double payOff;
+    public final double company;
+
+    public Award(Request winner, double payOff, double company) {
+        this.winner = winner;
+        this.payOff = payOff;
+        this.company = company;
+    }
+
+    /**
+     * Prices a job from the ask &price; and the revenue estimate &revenue; of the bid that
+     * sets the price, the company takes its cut out of the price
+     *
+     * @param winner  the winning bid
+     * @param price   the ask that sets the price
+     * @param revenue the revenue estimate that goes with &price;
+     * @param rule    ProfitSharingRule see {@link ProfitSharingRule}
+     * @return the award
+     */
+    public static Award of(Request winner, double price, double revenue, ProfitSharingRule rule) {
+        double company = rule.companyShare(price, revenue);
+        return new Award(winner, price - company, company);
+    }
+
+    /**
+     * Writes the final split into the bid of the winner, this is what the taxi receives
+     * with the ACCEPT_PROPOSAL
+     *
+     * @return the winning request
+     */
+    public Request apply() {
+        winner.bid = new Bid();
+        winner.bid.payOff = payOff;
+        winner.bid.company = company;
+        return winner;
+    }
+}
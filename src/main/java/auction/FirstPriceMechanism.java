@@ -0,0 +1,31 @@
+package auction;
+
+import city.Request;
+
+import java.util.List;
+
+/**
+ * The lowest non negative ask wins and sets the price
+ */
+public class FirstPriceMechanism implements AuctionMechanism {
+    private final ProfitSharingRule rule;
+
+    public FirstPriceMechanism(ProfitSharingRule rule) {
+        this.rule = rule;
+    }
+
+    public String getName() {
+        return "first-price";
+    }
+
+    public Award award(List<Request> bids) {
+        Request best = null;
+        for (Request r : bids) {
+            if (r.bid.payOff >= 0 && (best == null || r.bid.payOff < best.bid.payOff))
+                best = r;
+        }
+        if (best == null)
+            return null;
+        return Award.of(best, best.bid.payOff, best.bid.company, rule);
+    }
+}
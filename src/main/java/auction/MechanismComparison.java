@@ -0,0 +1,81 @@
+package auction;
+
+import city.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates several mechanisms in shadow mode on the bid vector of every auction.
+ * Only the mechanism configured for the coordinator decides the real award, the
+ * others just accumulate what drivers and company would have earned under them, so
+ * a single simulation run yields comparable payoffs for every mechanism
+ */
+public class MechanismComparison {
+    private final List<AuctionMechanism> mechanisms;
+    private final long[] awards;
+    private final long[] unawarded;
+    private final double[] driverPayoff;
+    private final double[] companyPayoff;
+
+    public MechanismComparison(List<AuctionMechanism> mechanisms) {
+        this.mechanisms = new ArrayList<>(mechanisms);
+        this.awards = new long[mechanisms.size()];
+        this.unawarded = new long[mechanisms.size()];
+        this.driverPayoff = new double[mechanisms.size()];
+        this.companyPayoff = new double[mechanisms.size()];
+    }
+
+    /**
+     * Runs every mechanism on the same bids and records the outcome
+     *
+     * @param bids the eligible bids of an auction
+     */
+    public void evaluate(List<Request> bids) {
+        for (int i = 0; i < mechanisms.size(); i++) {
+            Award award = mechanisms.get(i).award(bids);
+            if (award == null) {
+                unawarded[i]++;
+            } else {
+                awards[i]++;
+                driverPayoff[i] += award.payOff;
+                companyPayoff[i] += award.company;
+            }
+        }
+    }
+
+    public int size() {
+        return mechanisms.size();
+    }
+
+    public String getName(int i) {
+        return mechanisms.get(i).getName();
+    }
+
+    public long getAwards(int i) {
+        return awards[i];
+    }
+
+    public long getUnawarded(int i) {
+        return unawarded[i];
+    }
+
+    public double getDriverPayoff(int i) {
+        return driverPayoff[i];
+    }
+
+    public double getCompanyPayoff(int i) {
+        return companyPayoff[i];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %8s %10s %14s %14s%n", "mechanism", "awards", "unawarded", "driver", "company"));
+        for (int i = 0; i < mechanisms.size(); i++) {
+            sb.append(String.format("%-24s %8d %10d %14.2f %14.2f%n", getName(i), awards[i], unawarded[i],
+                    driverPayoff[i], companyPayoff[i]));
+        }
+        return sb.toString();
+    }
+}
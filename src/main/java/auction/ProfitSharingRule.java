@@ -0,0 +1,48 @@
+package auction;
+
+import java.io.Serializable;
+
+/**
+ * Splits the price of a job between the company and the taxi driver
+ */
+public interface ProfitSharingRule extends Serializable {
+
+    /**
+     * Returns the cut of the company
+     *
+     * @param price   the price of the job
+     * @param revenue the revenue estimate of the bid that set the price
+     * @return the amount kept by the company
+     */
+    double companyShare(double price, double revenue);
+
+    /**
+     * The company keeps a fixed share of the margin between revenue and price
+     */
+    class MarginShare implements ProfitSharingRule {
+        private final double share;
+
+        public MarginShare(double share) {
+            this.share = share;
+        }
+
+        public double companyShare(double price, double revenue) {
+            return share * (revenue - price);
+        }
+    }
+
+    /**
+     * The company keeps a fixed commission on the price
+     */
+    class Commission implements ProfitSharingRule {
+        private final double rate;
+
+        public Commission(double rate) {
+            this.rate = rate;
+        }
+
+        public double companyShare(double price, double revenue) {
+            return rate * price;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package auction;
+
+import city.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rejects every ask above the reserve price and lets another mechanism decide among
+ * the remaining bids
+ */
+public class ReservePriceMechanism implements AuctionMechanism {
+    private final AuctionMechanism mechanism;
+    private final double reserve;
+
+    public ReservePriceMechanism(AuctionMechanism mechanism, double reserve) {
+        this.mechanism = mechanism;
+        this.reserve = reserve;
+    }
+
+    public String getName() {
+        return "reserve-" + mechanism.getName();
+    }
+
+    public Award award(List<Request> bids) {
+        ArrayList<Request> accepted = new ArrayList<>();
+        for (Request r : bids) {
+            if (r.bid.payOff <= reserve)
+                accepted.add(r);
+        }
+        return mechanism.award(accepted);
+    }
+}
@@ -0,0 +1,41 @@
+package auction;
+
+import city.Request;
+
+import java.util.List;
+
+/**
+ * The lowest non negative ask wins and is paid the second lowest ask. When there is
+ * no second ask, or it leaves no margin for the company, the winner's own ask is used
+ */
+public class VickreyMechanism implements AuctionMechanism {
+    private final ProfitSharingRule rule;
+
+    public VickreyMechanism(ProfitSharingRule rule) {
+        this.rule = rule;
+    }
+
+    public String getName() {
+        return "vickrey";
+    }
+
+    public Award award(List<Request> bids) {
+        Request best = null, second = null;
+        for (Request r : bids) {
+            if (r.bid.payOff < 0)
+                continue;
+            if (best == null || r.bid.payOff < best.bid.payOff) {
+                second = best;
+                best = r;
+            } else if (second == null || r.bid.payOff < second.bid.payOff) {
+                second = r;
+            }
+        }
+        if (best == null)
+            return null;
+        Request price = second;
+        if (price == null || price.bid.company - price.bid.payOff <= 0)
+            price = best;
+        return Award.of(best, price.bid.payOff, price.bid.company, rule);
+    }
+}
@@ -1,18 +1,18 @@
 package behaviour;
 
 import agents.Taxi;
-import city.City;
 import city.Request;
+import city.RequestCodec;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.lang.acl.ACLMessage;
 import utils.agentMethods.TaxiMethods;
+import utils.log.Category;
+import utils.log.EventLog;
+import utils.log.Level;
+import utils.metrics.RefuseReason;
+import utils.metrics.SimulationMetrics;
 import utils.misc.Activity;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.ObjectInput;
-import java.io.ObjectInputStream;
-
 /**
  * Created by eduardosalazar1 on 6/12/16.
  */
@@ -28,15 +28,19 @@ public class BidBehaviour extends CyclicBehaviour {
         Request request = null;
         if (msg != null) {
             // Message received. Process it
-            ByteArrayInputStream bis = new ByteArrayInputStream(msg.getByteSequenceContent());
-            ObjectInput in;
+            ACLMessage reply = msg.createReply();
             try {
-                in = new ObjectInputStream(bis);
-                request = ((Request) in.readObject());
-            } catch (IOException | ClassNotFoundException e) {
-                e.printStackTrace();
+                request = RequestCodec.decode(msg.getByteSequenceContent(), agent.vCity);
+            } catch (IllegalArgumentException e) {
+                // Refuse what cannot be read, so the coordinator does not wait for this taxi
+                EventLog.log(Level.WARN, Category.AUCTION, agent.runtime.now(), agent.getLocalName(),
+                        "Could not read the request of {o}", 0, 0, 0, msg.getSender().getLocalName());
+                reply.setPerformative(msg.getPerformative() == ACLMessage.ACCEPT_PROPOSAL ? ACLMessage.DISCONFIRM
+                        : ACLMessage.REFUSE);
+                reply.setContent("Not understood");
+                agent.send(reply);
+                return;
             }
-            ACLMessage reply = msg.createReply();
             switch (msg.getPerformative()) {
                 case ACLMessage.CFP:
 
@@ -46,37 +50,40 @@ public class BidBehaviour extends CyclicBehaviour {
                             || agent.activity == Activity.TRAVELING_TO_PASSENGER) {
 
                         // Check if they are allowed to bid
-                        if (getBidAvailability(this.agent, request)) {
+                        RefuseReason unavailable = getBidAvailability(this.agent, request);
+                        if (unavailable == null) {
                             Request bid = agent.bid(request);//THis should have the bid value
                             //Calculate biding
                             if (bid != null) {
                                 // The bid is available . Reply with the value
                                 reply.setPerformative(ACLMessage.PROPOSE);
-                                try {
-                                    reply.setContentObject(bid);
-                                } catch (IOException e) {
-                                    e.printStackTrace();
-                                }
+                                reply.setByteSequenceContent(RequestCodec.encode(bid));
+                                SimulationMetrics.get().proposals.increment();
                             } else {
                                 // Error bidding
                                 reply.setPerformative(ACLMessage.REFUSE);
                                 reply.setContent("Not Available");
+                                SimulationMetrics.get().refused(RefuseReason.NO_BID);
                             }
                             // Not eligible to bid
                         } else {
                             reply.setPerformative(ACLMessage.REFUSE);
                             reply.setContent(agent.activity.name());
+                            SimulationMetrics.get().refused(unavailable);
                         }
                         // The drivers are offline
                     } else {
                         reply.setPerformative(ACLMessage.REFUSE);
                         reply.setContent(agent.activity.name());
+                        SimulationMetrics.get().refused(RefuseReason.OFFLINE);
                     }
                     break;
                 case ACLMessage.ACCEPT_PROPOSAL:
                     // HERE CODE WHEN TAXI IS TAKING THE JOB
+                    // Keep the clock still until the trip has been scheduled, see LocationBehaviour
+                    this.agent.runtime.hold(this.agent);
                     this.agent.won_last_round = true;
-                    this.agent.time_of_list_win = TaxiMethods.timeToSecond(this.agent.runtime.getDate());
+                    this.agent.time_of_list_win = this.agent.runtime.now();
                     this.agent.addBehaviour(new PickupCustomerBehaviour(this.agent, request));
                     reply.setPerformative(ACLMessage.CONFIRM);
                     reply.setContent("Not Available");
@@ -84,6 +91,8 @@ public class BidBehaviour extends CyclicBehaviour {
             }
 
             agent.send(reply);
+        } else {
+            block();
         }
     }
 
@@ -97,22 +106,24 @@ public class BidBehaviour extends CyclicBehaviour {
      *
      * @param taxi    Taxi see {@link Taxi}
      * @param request Request see {@link Request}
-     * @return true when the above conditions are met
+     * @return null when the above conditions are met, otherwise the first one that is not
      */
-    private boolean getBidAvailability(Taxi taxi, Request request) {
+    private RefuseReason getBidAvailability(Taxi taxi, Request request) {
         boolean result = false;
         boolean can_bid = true;
         if (taxi.getShitfStatus(taxi.getElapsed())) {
             int jobTime = TaxiMethods.getJobCompletionTime(this.agent.vCity, this.agent, request);
-            result = taxi.getShitfStatus((jobTime * 60 * 60) + TaxiMethods.timeToSecond(taxi.runtime.getDate()));
+            result = taxi.getShitfStatus((jobTime * 60 * 60) + taxi.runtime.getSecondOfDay());
         }
-        int time_for_last_distance = (int) ((City.last_req_distance / TaxiMethods.SPEED) * 60 * 60);
-        if (TaxiMethods.timeToSecond(taxi.runtime.getDate()) < this.agent.time_of_list_win + time_for_last_distance) {
+        int time_for_last_distance = (int) ((this.agent.vCity.last_req_distance / TaxiMethods.SPEED) * 60 * 60);
+        if (taxi.runtime.now() < this.agent.time_of_list_win + time_for_last_distance) {
             can_bid = false;
         } else {
             taxi.activity = Activity.WAITING_FOR_JOB;
         }
 
-        return (can_bid && result);
+        if (!can_bid)
+            return RefuseReason.BUSY;
+        return result ? null : RefuseReason.END_OF_SHIFT;
     }
 }
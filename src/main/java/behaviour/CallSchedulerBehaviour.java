@@ -0,0 +1,88 @@
+package behaviour;
+
+import agents.TaxiCoordinator;
+import city.*;
+import jade.core.behaviours.CyclicBehaviour;
+import utils.log.Category;
+import utils.log.EventLog;
+import utils.log.Level;
+import utils.metrics.SimulationMetrics;
+import utils.simulation.Call;
+import utils.simulation.CallSource;
+import utils.simulation.EventType;
+
+/**
+ * Feeds the calls of the {@link CallSource} of the coordinator into the auctions. The
+ * behaviour sleeps until the simulated clock reaches the time of the next call, hands
+ * the call to the auctions and schedules the following one
+ */
+public class CallSchedulerBehaviour extends CyclicBehaviour {
+    private final TaxiCoordinator agent;
+    private final ManageCallBehaviour auctions;
+    private Call next;
+
+    public CallSchedulerBehaviour(TaxiCoordinator coordinator, ManageCallBehaviour auctions) {
+        this.agent = coordinator;
+        this.auctions = auctions;
+        this.next = coordinator.callSource.next();
+    }
+
+    @Override
+    public void onStart() {
+        if (next != null)
+            agent.runtime.wakeAt(next.time, EventType.CALL_ARRIVAL, this);
+    }
+
+    @Override
+    public void action() {
+        if (next != null && agent.runtime.now() >= next.time) {
+            while (next != null && agent.runtime.now() >= next.time) {
+                Request request = receiveCall(next);
+                if (request != null)
+                    auctions.queueCall(request);
+                next = agent.callSource.next();
+            }
+            if (next != null)
+                agent.runtime.wakeAt(next.time, EventType.CALL_ARRIVAL, this);
+            else
+                EventLog.log(Level.INFO, Category.CALL, agent.runtime.now(), agent.getLocalName(), "No more calls");
+            auctions.restart();
+        }
+        agent.runtime.acknowledge(this);
+        block();
+    }
+
+    /**
+     * Turns a call into a passenger at its intersection and the request to be auctioned
+     *
+     * @param call Call see {@link Call}
+     * @return the request to be auctioned, null when the call is not from a known intersection
+     */
+    private Request receiveCall(Call call) {
+        if (call.origin < 0 || call.origin >= agent.vCity.intersections.size()
+                || call.destination < 0 || call.destination >= agent.vCity.G.V()) {
+            EventLog.log(Level.WARN, Category.CALL, agent.runtime.now(), agent.getLocalName(),
+                    "Ignoring call from {a} to {b}, unknown node", call.origin, call.destination);
+            return null;
+        }
+        Intersection intersection = agent.vCity.intersections.get(call.origin);
+
+        // 4. Receive call
+        double distance = Double.isNaN(call.distance) ? Passenger.travelDistance(agent.random) : call.distance;
+        Passenger p = new Passenger(intersection, agent.calls++, distance);
+        agent.vCity.totalPassengers++;
+        SimulationMetrics.get().callsGenerated.increment();
+        agent.vCity.last_req_distance = p.d;
+        agent.receiveCall(p, intersection);
+
+        EventLog.log(Level.INFO, Category.CALL, agent.runtime.now(), agent.getLocalName(),
+                "Calling from Node {a} to {b}", intersection.index, call.destination);
+        agent.out("Call " + intersection.index);
+
+        Request request = new Request(intersection, new DropoffPoint(call.destination), agent.calls);
+        request.callTime = call.time;
+        if (agent.trace != null)
+            agent.trace.call(call.time, agent.calls, intersection.index, call.destination);
+        return request;
+    }
+}
@@ -2,19 +2,38 @@ package behaviour;
 
 import agents.Taxi;
 import jade.core.behaviours.CyclicBehaviour;
+import utils.misc.Activity;
+import utils.simulation.EventType;
 
 /**
  * Created by eduardosalazar1 on 6/13/16.
+ * <p>
+ * Updates the duty status of a taxi at the boundaries of its shift. Between two
+ * boundaries the behaviour stays blocked on a simulated-time alarm, a taxi that is
+ * still busy when its shift ends is checked again every &RETRY; seconds
  */
 public class CheckStateBehavior extends CyclicBehaviour {
+    private static final int RETRY = 60;
     private final Taxi agent;
+    private long wakeAt = -1;
+
     public CheckStateBehavior(Taxi taxi){
         agent = taxi;
     }
 
     @Override
     public void action() {
-        // Check call taxi self check
-        agent.checkStatus();
+        long now = agent.runtime.now();
+        // Messages restart every blocked behaviour, ignore them until the alarm is due
+        if (now >= wakeAt) {
+            // Check call taxi self check
+            agent.checkStatus();
+            int elapsed = agent.getElapsed();
+            boolean busy = agent.activity != Activity.SHIFT_FINISHED && !agent.getShitfStatus(elapsed);
+            wakeAt = now + (busy ? RETRY : agent.getShift().secondsToNextChange(elapsed));
+            agent.runtime.wakeAt(wakeAt, EventType.SHIFT_CHANGE, this);
+        }
+        agent.runtime.acknowledge(this);
+        block();
     }
 }
@@ -0,0 +1,73 @@
+package behaviour;
+
+import agents.TaxiCoordinator;
+import jade.core.behaviours.TickerBehaviour;
+
+/**
+ * Advances the simulated clock of the coordinator and wakes up the behaviours waiting
+ * for the new time.
+ * <p>
+ * With next-event time advance the clock jumps straight to the next scheduled event as
+ * soon as every agent has handled the previous ones and no auction is running, so long
+ * idle stretches cost no wall-clock time. Otherwise the clock advances by one grain
+ * every &tickMillis;. JADE timers are coarser than a millisecond, so every tick catches
+ * up with the wall-clock time that has passed since the clock was started
+ */
+public class ClockBehaviour extends TickerBehaviour {
+    private final TaxiCoordinator agent;
+    private final ManageCallBehaviour auctions;
+    private final long period;
+    private long started = -1;
+    private long ticks = 0;
+    private long stalledSince = -1;
+
+    public ClockBehaviour(TaxiCoordinator coordinator, ManageCallBehaviour auctions) {
+        super(coordinator, Math.max(1, coordinator.config.tickMillis));
+        agent = coordinator;
+        this.auctions = auctions;
+        period = Math.max(1, coordinator.config.tickMillis);
+    }
+
+    @Override
+    protected void onTick() {
+        if (agent.runtime.hasEnded()) {
+            agent.finish();
+            stop();
+            return;
+        }
+        if (agent.config.nextEventTime)
+            nextEvent();
+        else
+            catchUp();
+    }
+
+    private void catchUp() {
+        long now = System.currentTimeMillis();
+        if (started < 0)
+            started = now - period;
+        long due = (now - started) / period;
+        while (ticks < due) {
+            agent.runtime.tick();
+            ticks++;
+        }
+        agent.runtime.wakeUp();
+    }
+
+    private void nextEvent() {
+        if (!auctions.isIdle())
+            return;
+        if (agent.runtime.isQuiescent()) {
+            stalledSince = -1;
+            agent.runtime.advanceToNextEvent();
+            return;
+        }
+        // Some agent did not acknowledge its event, wake it up again after a while
+        long now = System.currentTimeMillis();
+        if (stalledSince < 0) {
+            stalledSince = now;
+        } else if (agent.config.bidDeadlineMillis > 0 && now - stalledSince >= agent.config.bidDeadlineMillis) {
+            agent.runtime.nudge();
+            stalledSince = -1;
+        }
+    }
+}
@@ -4,60 +4,108 @@ import agents.Taxi;
 import city.DropoffPoint;
 import jade.core.behaviours.Behaviour;
 import utils.agentMethods.TaxiMethods;
+import utils.log.Category;
+import utils.log.EventLog;
+import utils.log.Level;
 import utils.misc.Activity;
 import utils.shortestPath.DijkstraUndirectedSP;
 import utils.shortestPath.Edge;
 import utils.shortestPath.Path;
+import utils.simulation.EventType;
 import utils.simulation.Timer;
 
 /**
  * Created by jherez on 6/12/16.
+ * <p>
+ * Drives a taxi through a job. The pickup and the dropoff are scheduled as events on
+ * the simulated clock, the behaviour stays blocked in between
  */
 class LocationBehaviour extends Behaviour {
     private final Taxi agent;
     private final DropoffPoint destination;
     private final Timer timer;
     private double jobTime;
-    private final int initTime;
+    private final long pickupTime;
+    private final long initTime;
+    private final long callTime;
+    private final int passenger;
+    private boolean pickedUp = false;
 
 
     public LocationBehaviour(DropoffPoint origin, DropoffPoint destination, Taxi taxi, Timer runtime) {
         this.timer = runtime;
-        this.initTime = TaxiMethods.timeToSecond(runtime.getDate());
+        this.initTime = runtime.now();
         this.agent = taxi;
         this.destination = destination;
         DijkstraUndirectedSP sp = this.agent.vCity.getShortestPaths(this.agent.vCity.G, origin.index);
-        Path path = new Path();
-        path.w = origin.index;
-        path.v = destination.index;
-        path.weight = sp.distTo(destination.index);
-        for (Edge e : sp.pathTo(destination.index)) {
-            path.list.add(e);
+        this.agent.activity = Activity.TRAVELING_TO_PASSENGER;
+        if (EventLog.isEnabled(Level.DEBUG, Category.TRIP)) {
+            // The route is only needed for the log, the writer thread formats it
+            Path path = new Path();
+            for (Edge e : sp.pathTo(destination.index)) {
+                path.list.add(e);
+            }
+            EventLog.log(Level.DEBUG, Category.TRIP, runtime.now(), agent.getLocalName(),
+                    "Travelling from {a} to {b} via {o}", origin.index, destination.index, 0, path.list);
         }
-        this.agent.activity = Activity.TRANSPORTING_PASSENGER;
-        String msg = "(" + agent.runtime.toString() + ") ---> Taxi " + this.agent.getLocalName() + " travelling from " + origin.index;
-        msg += " to " + destination.index + " via " + path.list.toString();
-        msg += " for a distance of " + path.weight;
-
-        System.out.println(msg);
+        EventLog.log(Level.INFO, Category.TRIP, runtime.now(), agent.getLocalName(),
+                "Travelling from {a} to {b} for a distance of {x}", origin.index, destination.index,
+                sp.distTo(destination.index), null);
         this.jobTime = TaxiMethods.getTotalTravelDistance(this.agent.vCity, this.agent.currentLocation, this.agent.confirmed_request);
         this.jobTime = (int) ((this.jobTime / TaxiMethods.SPEED) * 60 * 60);
+        double pickupDistance = sp.distTo(this.agent.confirmed_request.origin.index);
+        this.pickupTime = Math.min((long) this.jobTime, (long) ((pickupDistance / TaxiMethods.SPEED) * 60 * 60));
+        this.callTime = this.agent.confirmed_request.callTime;
+        this.passenger = this.agent.confirmed_request.passengerID;
+    }
+
+    @Override
+    public void onStart() {
+        // Sleep until the simulated clock reaches the pickup and the arrival time
+        this.timer.wakeAt(this.initTime + this.pickupTime, EventType.PICKUP, this);
+        this.timer.wakeAt(this.initTime + (long) this.jobTime, EventType.DROPOFF, this);
+        // The trip is scheduled, the clock may move on (see BidBehaviour)
+        this.timer.acknowledge(this.agent);
     }
 
     @Override
     public void action() {
-        if (TaxiMethods.timeToSecond(this.timer.getDate()) >= this.initTime + this.jobTime) {
+        long now = this.timer.now();
+        if (now >= this.initTime + this.jobTime) {
+            // The pickup may fall on the same wake-up as the dropoff
+            if (!this.pickedUp)
+                pickUp(now);
             this.agent.activity = Activity.JUST_WON_BID;
             this.agent.destination = this.destination;
             this.agent.currentLocation = this.destination;
             this.agent.currentPassenger = null;
+            this.agent.trips.recordTrip(now - (this.initTime + this.pickupTime));
+            if (this.agent.trace != null)
+                this.agent.trace.dropoff(now, this.passenger, this.agent.getIndex(), this.destination.index);
+        } else {
+            if (!this.pickedUp && now >= this.initTime + this.pickupTime)
+                pickUp(now);
+            block();
         }
+        this.timer.acknowledge(this);
+    }
+
+    /**
+     * Records the pickup of the passenger at &now;
+     */
+    private void pickUp(long now) {
+        this.pickedUp = true;
+        this.agent.activity = Activity.TRANSPORTING_PASSENGER;
+        this.agent.trips.recordWait(now - this.callTime);
+        if (this.agent.trace != null)
+            this.agent.trace.pickup(now, this.passenger, this.agent.getIndex(), now - this.callTime);
+        EventLog.log(Level.INFO, Category.TRIP, now, agent.getLocalName(), "Picked up passenger after {a}s", now - this.callTime);
     }
 
     @Override
     public boolean done() {
         if (this.agent.currentLocation == this.destination) {
-            System.out.println("(" + agent.runtime.toString() + ") <--- Taxi " + agent.getLocalName() + ": Arrived at " + this.destination.index);
+            EventLog.log(Level.INFO, Category.TRIP, timer.now(), agent.getLocalName(), "Arrived at {a}", this.destination.index);
             return true;
         }
         return false;
@@ -1,240 +1,450 @@
 package behaviour;
 
 import agents.TaxiCoordinator;
+import auction.Auction;
+import auction.Award;
 import city.*;
 import jade.core.AID;
-import jade.core.behaviours.Behaviour;
+import jade.core.behaviours.CyclicBehaviour;
 import jade.lang.acl.ACLMessage;
 import jade.lang.acl.MessageTemplate;
+import utils.assignment.HungarianAssignment;
+import utils.log.Category;
+import utils.log.EventLog;
+import utils.log.Level;
+import utils.metrics.SimulationMetrics;
 import utils.misc.Activity;
+import utils.simulation.EventType;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.ObjectInput;
-import java.io.ObjectInputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 /**
- * This class Handle the Call Generation and send the request to taxis for auction
+ * This class sends the calls queued by the {@link CallSchedulerBehaviour} to the taxis for auction.
+ * The behaviour is message driven: it only runs when a reply arrives, a call is queued or
+ * the simulated clock reaches an auction deadline.
+ * <p>
+ * Calls are auctioned as soon as they arrive, so several auctions can be waiting for
+ * bids or confirmations at the same time. Every auction keeps its own state in an
+ * {@link Auction} record and messages are routed to it through the in-reply-to field.
+ * A taxi may bid on several open auctions, conflicts are resolved when an auction is
+ * awarded: bids of taxis that won another auction after the CFP was sent are stale
+ * and are not considered.
+ * <p>
+ * When a batch window is configured closed auctions are not awarded one by one, they
+ * are collected for the length of the window and then awarded together by solving a
+ * min-cost assignment between the requests and the taxis that bid on them.
+ * <p>
+ * An award only counts once the winner confirms it. A call whose winner disconfirms, or
+ * does not confirm within &bidDeadlineMillis;, is auctioned again like a call without
+ * eligible bids, and dropped once it ran out of rounds
  */
-public class ManageCallBehaviour extends Behaviour {
-    private AID bestTaxi; // The agent who provides the best offer
-    private double bestPrice; // The best offered price
-    private int repliesCnt = 0; // The counter of replies from seller agents
-    private MessageTemplate mt; // The template to receive replies
-    private Activity activity = Activity.WAITING_FOR_CALLS;
+public class ManageCallBehaviour extends CyclicBehaviour {
+    private static final MessageTemplate replies = MessageTemplate.MatchConversationId("auction");
     private final TaxiCoordinator agent;
-    private Request lastBestRequest;
-    private final ArrayList<Request> biddingList = new ArrayList<>();
+    private final LinkedHashMap<String, Auction> auctions = new LinkedHashMap<>(); // Open auctions by CFP id
+    private final HashMap<String, Auction> awards = new HashMap<>(); // Awarded auctions by ACCEPT_PROPOSAL id
+    private final ArrayDeque<Request> pendingCalls = new ArrayDeque<>(); // Calls waiting for a free auction slot
+    private final HashMap<Request, Integer> rounds = new HashMap<>();
+    private final HashMap<AID, Long> lastAward = new HashMap<>(); // Award sequence of the last job of each taxi
+    private final HashSet<AID> unconfirmed = new HashSet<>(); // Taxis that did not confirm their last award yet
+    private long awardSeq = 0;
+    private long nextBatch = -1;
 
     public ManageCallBehaviour(TaxiCoordinator coordinator) {
         agent = coordinator;
     }
 
-    private void nextCall() {
-        agent.nextTime = agent.nextCall(agent.runtime.getDate());
+    /**
+     * Queues a call to be auctioned as soon as there is a free auction slot
+     *
+     * @param request Request see {@link Request}
+     */
+    public void queueCall(Request request) {
+        pendingCalls.add(request);
     }
 
-    @SuppressWarnings("InfiniteLoopStatement")
     public void action() {
-        //noinspection InfiniteLoopStatement,InfiniteLoopStatement,InfiniteLoopStatement,InfiniteLoopStatement,InfiniteLoopStatement,InfiniteLoopStatement,InfiniteLoopStatement
-        for (int t = 0; true; t++) {
-            agent.runtime.tick();
-            try {
-                Thread.sleep(1);
-            } catch (Exception ignored) {
+        receiveReplies();
+
+        // Award every auction that stopped accepting bids, or keep it for the batch
+        boolean batch = agent.config.batchWindow > 0;
+        Iterator<Auction> it = auctions.values().iterator();
+        while (it.hasNext()) {
+            Auction auction = it.next();
+            if (auction.activity == Activity.WAITING_FOR_BIDS
+                    && auction.isClosed(agent.config, agent.runtime.now())) {
+                logClosed(auction);
+                agent.comparison.evaluate(eligibleBids(auction));
+                if (batch)
+                    auction.activity = Activity.PROCESSING_BIDS;
+                else if (!award(auction))
+                    it.remove();
             }
+        }
+        expireAwards();
+        if (batch && agent.runtime.now() >= nextBatch) {
+            awardBatch();
+            nextBatch = agent.runtime.now() + agent.config.batchWindow;
+            agent.runtime.wakeAt(nextBatch, EventType.BATCH_CLOSE, this);
+        }
 
-            // 2 . Waiting for next call
-            if (activity == Activity.WAITING_FOR_CALLS) {
-                if (agent.isCallAvailable(agent.nextTime, agent.runtime.getDate())) {
-                    // 3. Pick Random Node but not taxi center
-                    int[] exclude = {agent.vCity.taxiCenter};
-                    int nextIndex = agent.pickRandomIntersectionIndex(agent.vCity.intersections, exclude);
-                    Intersection intersection = agent.vCity.intersections.get(nextIndex);
-
-                    // 4. Receive call
-                    System.out.println("---------------------------------------------------------------------------------------");
-                    Passenger p = new Passenger(intersection, agent.calls++);
-                    agent.vCity.totalPassengers++;
-                    City.last_req_distance = p.d;
-                    agent.receiveCall(p, intersection);
-                    // 5. DO ACTION PROCESS HERE
-
-                    // Pick random destination
-                    int[] exclude2 = {agent.vCity.taxiCenter, nextIndex};
-                    int destination = agent.pickRandomDropoffIndex(agent.vCity.dropoffPoints, exclude2);
-
-                    //System.out.println("("+agent.runtime.toString()+")(Call " + agent.calls + ")");
-                    System.out.println("(" + agent.runtime.toString() + ")  Calling from Node " + intersection.index + " to " + destination);
-                    agent.out("Call " + intersection.index);
-
-                    // Send Request to available taxi
-                    agent.lastRequest = new Request(agent.vCity.intersections.get(nextIndex), new DropoffPoint(agent.vCity.dropoffPoints.get(destination).index), agent.calls);
-                    sentRequest();
-
-                    // 6. Set next Time to call. ONly if step is 0 that means that is waiting for call
-                    if (activity == Activity.WAITING_FOR_CALLS) {
-                        nextCall();
-                    }
+        // Send the CFPs of queued calls while there are free auction slots
+        while (!pendingCalls.isEmpty() && auctions.size() < agent.config.maxOpenAuctions) {
+            sentRequest(pendingCalls.poll());
+        }
 
-                }
-            } else {
-                sentRequest();
-            }
+        // Sleep until a reply arrives, a call is queued or a deadline expires
+        agent.runtime.acknowledge(this);
+        long wait = wallClockWait();
+        if (wait > 0)
+            block(wait);
+        else
+            block();
+    }
 
+    /**
+     * Returns true when no call is waiting to be auctioned and no auction is waiting for
+     * replies. Confirmations that are overdue by the wall-clock deadline are not waited
+     * for, so a taxi that never confirms cannot stop the clock, they are expired by
+     * {@link #expireAwards()}
+     *
+     * @return whether the simulated clock may jump to the next event
+     */
+    public boolean isIdle() {
+        if (!pendingCalls.isEmpty())
+            return false;
+        long now = System.currentTimeMillis();
+        for (Auction auction : auctions.values()) {
+            if (auction.activity == Activity.WAITING_FOR_BIDS)
+                return false;
+            if (auction.activity == Activity.WAITING_TAXI_CONFIRMATION && (agent.config.bidDeadlineMillis <= 0
+                    || now - auction.awardedAtMillis < agent.config.bidDeadlineMillis))
+                return false;
         }
+        return true;
     }
 
-    private void sentRequest() {
+    /**
+     * Returns the wall-clock milliseconds until the first wall-clock deadline of the
+     * open auctions or of the awards waiting for confirmation, 0 when there is none
+     */
+    private long wallClockWait() {
+        if (agent.config.bidDeadlineMillis <= 0)
+            return 0;
+        long wait = 0;
+        for (Auction auction : auctions.values()) {
+            long since;
+            if (auction.activity == Activity.WAITING_FOR_BIDS)
+                since = auction.openedAtMillis;
+            else if (auction.activity == Activity.WAITING_TAXI_CONFIRMATION)
+                since = auction.awardedAtMillis;
+            else
+                continue;
+            long left = Math.max(1, since + agent.config.bidDeadlineMillis - System.currentTimeMillis());
+            if (wait == 0 || left < wait)
+                wait = left;
+        }
+        return wait;
+    }
 
-        switch (activity) {
-            case WAITING_FOR_CALLS:
-                // Send the cfp to all sellers
-                System.out.println("(" + agent.runtime.toString() + ")  Sending request to all agents");
-                ACLMessage cfp = new ACLMessage(ACLMessage.CFP);
-                for (int i = 0; i < agent.lstTaxi.size(); ++i) {
-                    cfp.addReceiver(agent.lstTaxi.get(i));
+    /**
+     * Gives up on the awards whose winner did not confirm within &bidDeadlineMillis;, the
+     * winners can bid again and their calls are auctioned again
+     */
+    private void expireAwards() {
+        if (agent.config.bidDeadlineMillis <= 0)
+            return;
+        long now = System.currentTimeMillis();
+        Iterator<Auction> it = auctions.values().iterator();
+        while (it.hasNext()) {
+            Auction auction = it.next();
+            if (auction.activity == Activity.WAITING_TAXI_CONFIRMATION
+                    && now - auction.awardedAtMillis >= agent.config.bidDeadlineMillis) {
+                it.remove();
+                awards.remove(auction.awardId);
+                unconfirmed.remove(auction.winner.bidder);
+                EventLog.log(Level.WARN, Category.AWARD, agent.runtime.now(), agent.getLocalName(),
+                        "Passenger {a} not confirmed by {o}", auction.request.passengerID, 0, 0,
+                        auction.winner.bidder.getLocalName());
+                rebid(auction);
+            }
+        }
+    }
 
-                }
-                try {
-                    cfp.setContentObject(agent.lastRequest);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                cfp.setConversationId("auction");
-                cfp.setReplyWith("cfp" + System.currentTimeMillis()); // Unique value
-                agent.send(cfp);
-                // Prepare the template to get proposals
-                mt = MessageTemplate.and(MessageTemplate.MatchConversationId("auction"),
-                        MessageTemplate.MatchInReplyTo(cfp.getReplyWith()));
-                activity = Activity.WAITING_FOR_BIDS;
-                break;
-            case WAITING_FOR_BIDS:
-                // Receive all proposals/refusals from seller agents
-                ACLMessage reply = agent.receive(mt);
-                Request response = null;
-                if (reply != null) {
-
-                    // Reply received
-                    if (reply.getPerformative() == ACLMessage.PROPOSE) {
-                        ByteArrayInputStream bis = new ByteArrayInputStream(reply.getByteSequenceContent());
-                        ObjectInput in;
-                        try {
-                            in = new ObjectInputStream(bis);
-                            response = ((Request) in.readObject());
-                        } catch (IOException | ClassNotFoundException e) {
-                            e.printStackTrace();
-                        }
-                        System.out.println("(" + agent.runtime.toString() + ")  Reply from " + reply.getSender().getLocalName() + " : " + (response != null ? response.bid.payOff : 0) + " NT");
-                        // This is an offer
-
-                        assert response != null;
-                        response.bidder = reply.getSender();
-                        biddingList.add(response);
+    /**
+     * Sends the CFP for &request; to all taxis and opens an auction for it
+     *
+     * @param request Request see {@link Request}
+     */
+    private void sentRequest(Request request) {
+        EventLog.log(Level.INFO, Category.AUCTION, agent.runtime.now(), agent.getLocalName(),
+                "Sending request for Passenger {a} to all agents", request.passengerID);
+        ACLMessage cfp = new ACLMessage(ACLMessage.CFP);
+        for (int i = 0; i < agent.lstTaxi.size(); ++i) {
+            cfp.addReceiver(agent.lstTaxi.get(i));
+        }
+        cfp.setByteSequenceContent(RequestCodec.encode(request));
+        Integer round = rounds.remove(request);
+        cfp.setConversationId("auction");
+        cfp.setReplyWith("cfp" + request.passengerID + "-" + (round == null ? 0 : round) + "-" + System.currentTimeMillis()); // Unique value
+        agent.send(cfp);
+        SimulationMetrics.get().auctionsOpened.increment();
+        SimulationMetrics.get().cfpsSent.add(agent.lstTaxi.size());
+        auctions.put(cfp.getReplyWith(), new Auction(cfp.getReplyWith(), request, agent.lstTaxi.size(),
+                agent.runtime.now(), awardSeq, round == null ? 0 : round));
+        agent.runtime.wakeAt(agent.runtime.now() + agent.config.bidDeadline, EventType.BID_CLOSE, this);
+    }
+
+    /**
+     * Routes every queued auction message to the auction it belongs to. Replies to
+     * auctions that are no longer accepting bids are discarded
+     */
+    private void receiveReplies() {
+        ACLMessage reply;
+        while ((reply = agent.receive(replies)) != null) {
+            switch (reply.getPerformative()) {
+                case ACLMessage.PROPOSE:
+                case ACLMessage.REFUSE:
+                    Auction auction = auctions.get(reply.getInReplyTo());
+                    if (auction == null || auction.activity != Activity.WAITING_FOR_BIDS
+                            || auction.isClosed(agent.config, agent.runtime.now())) {
+                        agent.lateReplies++;
                     } else {
-                        System.out.println("(" + agent.runtime.toString() + ")  Reply from " + reply.getSender().getLocalName() + " : " + reply.getContent() + " NT");
+                        receiveReply(auction, reply);
                     }
-                    repliesCnt++;
-                    if (repliesCnt >= agent.lstTaxi.size()) {
-                        processBids();
-                        // We received all replies
-                        activity = Activity.PROCESSING_BIDS;
+                    break;
+                case ACLMessage.CONFIRM:
+                case ACLMessage.DISCONFIRM:
+                    // RESPONSE OF TAXI WITH JOB ALLOCATED
+                    Auction awarded = awards.remove(reply.getInReplyTo());
+                    if (awarded == null)
+                        break;
+                    unconfirmed.remove(awarded.winner.bidder);
+                    auctions.remove(awarded.id);
+                    if (reply.getPerformative() == ACLMessage.CONFIRM) {
+                        EventLog.log(Level.INFO, Category.AWARD, agent.runtime.now(), agent.getLocalName(),
+                                "Passenger {a} confirmed by {o}", awarded.request.passengerID, 0, 0, awarded.winner.bidder.getLocalName());
+                        confirmed(awarded);
+                    } else {
+                        EventLog.log(Level.WARN, Category.AWARD, agent.runtime.now(), agent.getLocalName(),
+                                "Error allocation job for Passenger {a}", awarded.request.passengerID);
+                        rebid(awarded);
                     }
-                } else {
-                    block();
-                }
-                break;
-            case PROCESSING_BIDS:
-                //
-                try {
-                    Thread.sleep(5);
-                } catch (Exception ignored) {
-                }
-                System.out.println("(" + agent.runtime.toString() + ")  Bid won by " + bestTaxi.getLocalName() + " : " + bestPrice);
-                // Sending confirmation to taxi for best offer
-                ACLMessage order = new ACLMessage(ACLMessage.ACCEPT_PROPOSAL);
-                order.addReceiver(bestTaxi);
-                try {
-                    order.setContentObject(lastBestRequest);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                order.setConversationId("auction");
-                order.setReplyWith("call" + System.currentTimeMillis());
-                agent.send(order);
-                // Prepare the template to get the purchase order reply
-                mt = MessageTemplate.and(MessageTemplate.MatchConversationId("auction"),
-                        MessageTemplate.MatchInReplyTo(order.getReplyWith()));
-
-                activity = Activity.WAITING_TAXI_CONFIRMATION;
-                //SEND MESSAGE TO CONFIRM BID ACCEPTED
-                break;
-            case WAITING_TAXI_CONFIRMATION:
-                // RESPONSE OF TAXI WITH JOB ALLOCATED
-                ACLMessage confirmation = agent.receive(mt);
-                if (confirmation != null) {
-                    switch (confirmation.getPerformative()) {
-                        case ACLMessage.CONFIRM:
-                            nextCall();
-                            repliesCnt = 0;
-                            bestPrice = 0;
-                            bestTaxi = null;
-                            activity = Activity.WAITING_FOR_CALLS;
-                            System.out.println("(" + agent.runtime.toString() + ")  ");
-                            break;
-                        case ACLMessage.DISCONFIRM:
-                            System.out.println("Error allocation job");
+                    break;
+            }
+        }
+    }
 
-                    }
-                } else {
-                    block();
-                }
-                break;
+    /**
+     * Records a reply to an open auction. Proposals are added to the list of bids
+     *
+     * @param auction Auction see {@link Auction}
+     * @param reply   the PROPOSE or REFUSE message of a taxi
+     */
+    private void receiveReply(Auction auction, ACLMessage reply) {
+        if (reply.getPerformative() == ACLMessage.PROPOSE) {
+            Request response = null;
+            try {
+                response = RequestCodec.decode(reply.getByteSequenceContent(), agent.vCity);
+            } catch (IllegalArgumentException e) {
+                EventLog.log(Level.WARN, Category.AUCTION, agent.runtime.now(), agent.getLocalName(),
+                        "Unreadable proposal from {o}", 0, 0, 0, reply.getSender().getLocalName());
+            }
+            EventLog.log(Level.DEBUG, Category.AUCTION, agent.runtime.now(), agent.getLocalName(), "Reply from {o} : {x} NT",
+                    0, 0, response != null ? response.bid.payOff : 0, reply.getSender().getLocalName());
+            // This is an offer
+            if (response != null) {
+                response.bidder = reply.getSender();
+                auction.bids.add(response);
+            }
+        } else {
+            if (EventLog.isEnabled(Level.DEBUG, Category.AUCTION))
+                EventLog.log(Level.DEBUG, Category.AUCTION, agent.runtime.now(), agent.getLocalName(), "Reply from {o}",
+                        0, 0, 0, reply.getSender().getLocalName() + " : " + reply.getContent());
         }
+        auction.replies++;
+    }
+
+    private void logClosed(Auction auction) {
+        if (EventLog.isEnabled(Level.INFO, Category.AUCTION))
+            EventLog.log(Level.INFO, Category.AUCTION, agent.runtime.now(), agent.getLocalName(),
+                    "Auction for Passenger {a} closed after {b}s with {o} replies", auction.request.passengerID,
+                    auction.latency(agent.runtime.now()), 0, auction.replies + "/" + auction.invited);
+    }
+
+    /**
+     * Checks whether a bid can still be accepted. Taxis that did not confirm their last
+     * award, or that won an auction after this CFP was sent, placed a stale bid
+     *
+     * @param auction Auction see {@link Auction}
+     * @param bid     one of the bids of the auction
+     * @return true when the bid is eligible
+     */
+    private boolean isEligible(Auction auction, Request bid) {
+        Long last = lastAward.get(bid.bidder);
+        return !unconfirmed.contains(bid.bidder) && (last == null || last < auction.openedSeq);
     }
 
-    private void processBids() {
-        double lowestPayoff, secondLowestPayoff, lowestCo, secondLowestCo;
-        lowestPayoff = secondLowestPayoff = Integer.MAX_VALUE;
-        lowestCo = secondLowestCo = Integer.MAX_VALUE;
+    private ArrayList<Request> eligibleBids(Auction auction) {
+        ArrayList<Request> eligible = new ArrayList<>();
+        for (Request r : auction.bids) {
+            if (isEligible(auction, r))
+                eligible.add(r);
+        }
+        return eligible;
+    }
+
+    /**
+     * Awards a closed auction with the configured mechanism and sends the ACCEPT_PROPOSAL
+     * to the winner
+     *
+     * @param auction Auction see {@link Auction}
+     * @return true when the auction now waits for the confirmation of the winner
+     */
+    private boolean award(Auction auction) {
+        Award award = agent.mechanism.award(eligibleBids(auction));
+        if (award == null) {
+            rebid(auction);
+            return false;
+        }
+        sendAward(auction, award.apply());
+        return true;
+    }
+
+    /**
+     * Awards all auctions collected during the batch window at once. The requests and the
+     * eligible bidders form a cost matrix of bids that is solved as a min-cost assignment
+     * within the configured time budget. Winners are paid their own bid, split with the
+     * configured profit sharing rule
+     */
+    private void awardBatch() {
+        ArrayList<Auction> batch = new ArrayList<>();
+        for (Auction auction : auctions.values()) {
+            if (auction.activity == Activity.PROCESSING_BIDS)
+                batch.add(auction);
+        }
+        if (batch.isEmpty())
+            return;
 
-        for (Request r : biddingList) {
-            if (r.bid.payOff < lowestPayoff && r.bid.payOff >= 0) {
-                secondLowestPayoff = lowestPayoff;
-                lowestPayoff = r.bid.payOff;
-                lowestCo = r.bid.company;
-                bestTaxi = r.bidder;
-                lastBestRequest = r;
-            } else if (r.bid.payOff < secondLowestPayoff && r.bid.payOff != lowestPayoff) {
-                secondLowestPayoff = r.bid.payOff;
-                secondLowestCo = r.bid.company;
+        ArrayList<AID> taxis = new ArrayList<>();
+        HashMap<AID, Integer> column = new HashMap<>();
+        for (Auction auction : batch) {
+            for (Request r : auction.bids) {
+                if (isEligible(auction, r) && r.bid.payOff >= 0 && !column.containsKey(r.bidder)) {
+                    column.put(r.bidder, taxis.size());
+                    taxis.add(r.bidder);
+                }
             }
         }
 
-        if (secondLowestCo == Integer.MAX_VALUE && lowestCo != Integer.MAX_VALUE)
-            secondLowestCo = lowestCo;
-        else
-            secondLowestCo = 0;
-        if (secondLowestPayoff == Integer.MAX_VALUE && lowestPayoff != Integer.MAX_VALUE)
-            secondLowestPayoff = lowestPayoff;
-        else
-            secondLowestPayoff = 0;
+        double[][] cost = new double[batch.size()][taxis.size()];
+        Request[][] bids = new Request[batch.size()][taxis.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Arrays.fill(cost[i], Double.POSITIVE_INFINITY);
+            Auction auction = batch.get(i);
+            for (Request r : auction.bids) {
+                Integer j = column.get(r.bidder);
+                if (j != null && isEligible(auction, r) && r.bid.payOff >= 0 && r.bid.payOff < cost[i][j]) {
+                    cost[i][j] = r.bid.payOff;
+                    bids[i][j] = r;
+                }
+            }
+        }
+
+        HungarianAssignment solver = new HungarianAssignment(cost);
+        int[] assignment = solver.solve(agent.config.batchBudgetMillis * 1000000L);
+        EventLog.log(Level.INFO, Category.AWARD, agent.runtime.now(), agent.getLocalName(),
+                solver.isOptimal() ? "Batch of {a} requests and {b} taxis assigned for {x} NT"
+                        : "Batch of {a} requests and {b} taxis assigned for {x} NT (budget exceeded)",
+                batch.size(), taxis.size(), solver.cost(assignment), null);
 
-        if ((secondLowestCo - secondLowestPayoff) <= 0) {
-            secondLowestCo = lowestCo;
-            secondLowestPayoff = lowestPayoff;
+        for (int i = 0; i < batch.size(); i++) {
+            Auction auction = batch.get(i);
+            if (assignment[i] == -1) {
+                auctions.remove(auction.id);
+                rebid(auction);
+            } else {
+                Request winner = bids[i][assignment[i]];
+                sendAward(auction, Award.of(winner, winner.bid.payOff, winner.bid.company, agent.profitSharing).apply());
+            }
         }
+    }
 
-        lastBestRequest.bid.company = 0.3 * (secondLowestCo - secondLowestPayoff);
-        lastBestRequest.bid.payOff = secondLowestPayoff - lastBestRequest.bid.company;
+    /**
+     * Queues a request whose auction produced no winner for another round, up to
+     * &maxRebids; times, otherwise the call is dropped
+     *
+     * @param auction Auction see {@link Auction}
+     */
+    private void rebid(Auction auction) {
+        if (!auction.bids.isEmpty() && auction.round < agent.config.maxRebids) {
+            // Every bidder is busy with an award made after the CFP, ask again
+            rounds.put(auction.request, auction.round + 1);
+            pendingCalls.addFirst(auction.request);
+        } else {
+            // Nobody bid in time, the call is dropped
+            agent.dropped++;
+            SimulationMetrics.get().dropped.increment();
+            if (agent.trace != null)
+                agent.trace.dropped(agent.runtime.now(), auction.request.passengerID);
+            EventLog.log(Level.INFO, Category.AUCTION, agent.runtime.now(), agent.getLocalName(),
+                    "No bids for Passenger {a}", auction.request.passengerID);
+        }
+    }
+
+    /**
+     * Sends the ACCEPT_PROPOSAL to the winner of an auction and waits for its confirmation
+     *
+     * @param auction Auction see {@link Auction}
+     * @param winner  the winning bid
+     */
+    private void sendAward(Auction auction, Request winner) {
+        EventLog.log(Level.INFO, Category.AWARD, agent.runtime.now(), agent.getLocalName(), "Bid won by {o} : {x}",
+                0, 0, winner.bid.payOff, winner.bidder.getLocalName());
+        // Sending confirmation to taxi for best offer
+        ACLMessage order = new ACLMessage(ACLMessage.ACCEPT_PROPOSAL);
+        order.addReceiver(winner.bidder);
+        order.setByteSequenceContent(RequestCodec.encode(winner));
+        order.setConversationId("auction");
+        order.setReplyWith("call" + auction.id);
+        agent.send(order);
 
-        lastBestRequest.bidder = bestTaxi;
-        bestPrice = lastBestRequest.bid.payOff;
-        biddingList.clear();
+        lastAward.put(winner.bidder, ++awardSeq);
+        unconfirmed.add(winner.bidder);
+        auction.winner = winner;
+        auction.awardId = order.getReplyWith();
+        auction.awardedAtMillis = System.currentTimeMillis();
+        auction.activity = Activity.WAITING_TAXI_CONFIRMATION;
+        awards.put(auction.awardId, auction);
     }
 
-    public boolean done() {
-        return ((activity == Activity.PROCESSING_BIDS && bestTaxi == null) || activity == Activity.JOB_ALLOCATED);
+    /**
+     * Counts the award of &auction; and its payoffs once the winner has confirmed it. The
+     * auction time and the AWARD trace record are only kept then, so an award that is
+     * disconfirmed and bid again is counted once, like {@link TaxiCoordinator#awarded}
+     *
+     * @param auction Auction see {@link Auction}
+     */
+    private void confirmed(Auction auction) {
+        Request winner = auction.winner;
+        long now = agent.runtime.now();
+        long millis = auction.awardedAtMillis - auction.openedAtMillis;
+        agent.awarded++;
+        agent.driverPayoff += winner.bid.payOff;
+        agent.addCompanyPayoff(winner.bid.company);
+        agent.addShiftPayoff(winner.bidder, winner.bid.payOff, winner.bid.company);
+        agent.auctionMillis.record(millis);
+        if (agent.trace != null) {
+            Integer taxi = agent.taxiNumbers.get(winner.bidder);
+            agent.trace.award(now, winner.passengerID, taxi != null ? taxi : -1, winner.bid.payOff,
+                    winner.bid.company, auction.latency(now), auction.round);
+        }
+        SimulationMetrics.get().awarded(auction.latency(now), millis);
     }
 }
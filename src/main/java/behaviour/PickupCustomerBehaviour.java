@@ -3,6 +3,9 @@ package behaviour;
 import agents.Taxi;
 import city.Request;
 import jade.core.behaviours.Behaviour;
+import utils.log.Category;
+import utils.log.EventLog;
+import utils.log.Level;
 
 /**
  * Created by jherez on 6/12/16.
@@ -23,7 +26,8 @@ class PickupCustomerBehaviour extends Behaviour {
     public void action() {
         if (!pickup) {
             this.agent.addRequestToQueue(request);
-            System.out.println("(" + agent.runtime.toString() + ") <--- Taxi " + agent.getLocalName() + ": Adding Passenger " + this.request.passengerID + " to queue");
+            EventLog.log(Level.DEBUG, Category.TRIP, agent.runtime.now(), agent.getLocalName(),
+                    "Adding Passenger {a} to queue", this.request.passengerID);
             pickup = true;
         }
     }
@@ -5,6 +5,9 @@ import city.DropoffPoint;
 import city.Passenger;
 import city.Request;
 import jade.core.behaviours.Behaviour;
+import utils.log.Category;
+import utils.log.EventLog;
+import utils.log.Level;
 
 /**
  * Created by jherez on 6/15/16.
@@ -23,15 +26,16 @@ class ProcessRequestsBehaviour extends Behaviour {
     @Override
     public void action() {
         if (!endjob) {
-            Passenger passenger = new Passenger(this.request.origin, this.request.passengerID);
-            System.out.println("(" + agent.runtime.toString() + ") <--- Taxi " + agent.getLocalName() + ": Processing Passenger " + passenger.id);
+            Passenger passenger = new Passenger(this.request.origin, this.request.passengerID,
+                    Passenger.travelDistance(agent.random));
+            EventLog.log(Level.DEBUG, Category.TRIP, agent.runtime.now(), agent.getLocalName(), "Processing Passenger {a}", passenger.id);
             this.agent.addPassenger(passenger);
             this.agent.confirmed_request = this.request;
             this.agent.currentPassenger = passenger;
             this.agent.destination = this.request.destination;
             this.agent.addBehaviour(new LocationBehaviour(new DropoffPoint(this.agent.currentLocation.index), this.request.destination, this.agent, this.agent.runtime));
             this.agent.confirmed_request = null;
-            System.out.println("(" + agent.runtime.toString() + ") <--- Taxi " + agent.getLocalName() + ": Finished job for Passenger " + passenger.id);
+            EventLog.log(Level.DEBUG, Category.TRIP, agent.runtime.now(), agent.getLocalName(), "Finished job for Passenger {a}", passenger.id);
         }
         endjob = true;
     }
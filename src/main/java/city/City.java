@@ -2,14 +2,18 @@ package city;
 
 import utils.io.In;
 import utils.io.StdOut;
-import utils.simulation.StdRandom;
+import utils.metrics.SimulationMetrics;
+import utils.simulation.RandomStream;
+import utils.simulation.SimTime;
 import utils.shortestPath.DijkstraUndirectedSP;
 import utils.shortestPath.Edge;
 import utils.shortestPath.EdgeWeightedGraph;
 import utils.shortestPath.Path;
+import utils.stats.Reservoir;
 
-import java.text.SimpleDateFormat;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class City {
     /**
@@ -28,25 +32,83 @@ public class City {
     int totalCalls = 0;
     public final int taxiCenter = 27;
     public int totalPassengers = 0;
-    public static double last_req_distance;
+    public volatile double last_req_distance;
     public ArrayList<Intersection> intersections;
     public ArrayList<DropoffPoint> dropoffPoints;
-    public ArrayList<Passenger> passengerArrayList;
-    public static final HashMap<Integer, DijkstraUndirectedSP> pathLookup = new HashMap<>();
+    /**
+     * Uniform sample of at most &PASSENGER_SAMPLE; of the passengers of the run, see
+     * {@link Reservoir}. &totalPassengers; counts all of them
+     */
+    public Reservoir<Passenger> passengers;
+    public static final int PASSENGER_SAMPLE = 1000;
+    /**
+     * Master seed of the streams of the city, see {@link #setSeed(long)}
+     */
+    private long seed = 0;
+    private RandomStream random = RandomStream.of(0, "city", 0);
 
     public City() {
-        In in = new In("src/main/resources/v_city.txt");
-        generateCity(in);
+        this("src/main/resources/v_city.txt");
+    }
+
+    /**
+     * Creates the city whose road network is in &path;, in the format of
+     * {@link EdgeWeightedGraph#EdgeWeightedGraph(In)} or, when the path ends with
+     * {@link CityGenerator#BINARY_EXTENSION}, in the binary format of {@link CityGenerator}
+     *
+     * @param path the road network
+     */
+    public City(String path) {
+        if (path.endsWith(CityGenerator.BINARY_EXTENSION)) {
+            try {
+                generateCity(CityGenerator.readBinary(path));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Could not read " + path, e);
+            }
+        } else {
+            generateCity(new In(path));
+        }
+    }
+
+    /**
+     * Creates the city on the road network &G;, which is subdivided, see {@link #k}
+     *
+     * @param G the road network
+     */
+    public City(EdgeWeightedGraph G) {
+        generateCity(G);
+    }
+
+    /**
+     * Creates a city for another simulation run on the same road network. The graph is
+     * shared with &base; and must not be changed, the intersections, dropoff points and
+     * passengers of the new city are its own
+     *
+     * @param base the city to copy
+     */
+    public City(City base) {
+        this.G = base.G;
+        this.intersections = new ArrayList<>(base.intersections.size());
+        for (Intersection i : base.intersections)
+            this.intersections.add(new Intersection(i.index, i.connections));
+        this.dropoffPoints = new ArrayList<>(base.dropoffPoints.size());
+        for (DropoffPoint d : base.dropoffPoints)
+            this.dropoffPoints.add(new DropoffPoint(d.index));
+        this.passengers = passengerSample();
     }
 
     public void generateCity(In in) {
-        G = new EdgeWeightedGraph(in);
+        generateCity(new EdgeWeightedGraph(in));
+    }
+
+    private void generateCity(EdgeWeightedGraph G) {
+        this.G = G;
         this.intersections = extractIntersections(G);
         extendGraph(G);
         this.dropoffPoints = extractDropoffPoints(G);
         this.totalCalls = 0;
         this.totalPassengers = 0;
-        this.passengerArrayList = new ArrayList<>();
+        this.passengers = passengerSample();
     }
 
     public void generateCity(In in, int extend) {
@@ -58,45 +120,67 @@ public class City {
         this.dropoffPoints = extractDropoffPoints(G);
         this.totalCalls = 0;
         this.totalPassengers = 0;
-        this.passengerArrayList = new ArrayList<>();
+        this.passengers = passengerSample();
     }
 
     public void clear() {
         this.G = null;
-        pathLookup.clear();
         this.totalCalls = 0;
         this.totalPassengers = 0;
         this.intersections = null;
         this.dropoffPoints = null;
-        this.passengerArrayList = null;
+        this.passengers = null;
     }
 
     /**
      * Calculate shortest paths from source &w; to all other vertices &v_i;
-     * if &pathLookup; contains the shortest path for source &w; return it,
-     * otherwise update it
+     * if the cache of &G; contains the shortest path for source &w; return it,
+     * otherwise update it. The paths never change once computed, so the cache is shared
+     * by every city on &G;, see {@link EdgeWeightedGraph#shortestPaths()}
      *
      * @param G EdgeWeightedGraph.
      * @param w source node
      * @return an @ArrayList of @Intersections
      */
     public DijkstraUndirectedSP getShortestPaths(EdgeWeightedGraph G, int w) {
-        if (pathLookup.get(w) == null) {
-            DijkstraUndirectedSP sp = new DijkstraUndirectedSP(G, w);
-            pathLookup.put(w, sp);
-            return sp;
+        ConcurrentHashMap<Integer, DijkstraUndirectedSP> pathLookup = G.shortestPaths();
+        DijkstraUndirectedSP sp = pathLookup.get(w);
+        if (sp == null) {
+            SimulationMetrics.get().pathCacheMisses.increment();
+            // Two runs may compute the same paths at the same time, both results are equal
+            sp = new DijkstraUndirectedSP(G, w);
+            pathLookup.putIfAbsent(w, sp);
+        } else {
+            SimulationMetrics.get().pathCacheHits.increment();
         }
-        return pathLookup.get(w);
+        return sp;
     }
 
 
     public void addPassenger(Intersection intersection, int id) {
-        this.passengerArrayList.add(new Passenger(intersection, id));
+        this.passengers.add(new Passenger(intersection, id, Passenger.travelDistance(random)));
+    }
+
+    /**
+     * Derives the random streams of the city from the master seed of the run and
+     * starts a new sample of the passengers, see {@link RandomStream}
+     *
+     * @param masterSeed the seed of the simulation run
+     */
+    public void setSeed(long masterSeed) {
+        this.seed = masterSeed;
+        this.random = RandomStream.of(masterSeed, "city", 0);
+        this.passengers = passengerSample();
+    }
+
+    private Reservoir<Passenger> passengerSample() {
+        // A stream of its own, so sampling does not change the numbers of the agents
+        return new Reservoir<>(PASSENGER_SAMPLE, RandomStream.of(seed, "passengers", 0));
     }
 
     public void setPassengerRoute(Passenger p) {
         ArrayList<Path> paths = getRoutes(G, p.origin.index, p.d);
-        int rand = StdRandom.uniform(0, paths.size());
+        int rand = random.uniform(0, paths.size());
         Path destination = paths.get(rand);
         p.destinationNode = destination.v;
         p.route = destination;
@@ -289,28 +373,22 @@ public class City {
         }
     }
 
+    /**
+     * Reads the time of day the simulation starts at from time.txt
+     *
+     * @return the simulated start time, see {@link SimTime}, midnight when the file cannot be read
+     */
     @SuppressWarnings("ThrowablePrintedToSystemOut")
-    public static Date getFileTime() {
+    public static long getFileStartTime() {
         try {
             In in = new In("src/main/resources/time.txt");
-
             String s = in.readLine();
             System.out.println(s);
-
-            Date input = new SimpleDateFormat("HH:mm:ss").parse(s);
-            Calendar cal1 = Calendar.getInstance();
-            cal1.setTime(input);
-
-            Calendar cal = Calendar.getInstance();
-            cal.set(Calendar.HOUR_OF_DAY, cal1.get(Calendar.HOUR));
-            cal.set(Calendar.MINUTE, cal1.get(Calendar.MINUTE));
-            cal.set(Calendar.SECOND, cal1.get(Calendar.SECOND));
-
-            return cal.getTime();
+            return SimTime.parse(s);
         } catch (Exception e) {
             System.out.println(e);
         }
-        return new Date();
+        return 0;
     }
 
 }
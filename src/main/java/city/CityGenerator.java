@@ -0,0 +1,277 @@
+package city;
+
+import utils.io.In;
+import utils.shortestPath.Edge;
+import utils.shortestPath.EdgeWeightedGraph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Synthetic road networks of any size for scale testing. The network is a grid of
+ * &intersections; intersections, numbered row by row, whose blocks are 1, 1.5 or 2 long.
+ * A street of the grid is closed here and there, and every &ARTERIAL_SPACING;-th row and
+ * column is an arterial with express roads that skip &ARTERIAL_STRIDE; blocks and are a
+ * quarter shorter than the streets they run along.
+ * <p>
+ * The networks are connected, and they fit {@link City}: every weight is a multiple of
+ * {@link City#k} and at least 1, so {@link City} can split every road, the subdivided
+ * network fits in {@link City#multiplier} times the intersections, and every intersection
+ * but 0 is the second node of a road to a lower one, which is how
+ * {@link City#extractIntersections} finds them.
+ * <p>
+ * The network is written in the text format of v_city.txt, see
+ * {@link EdgeWeightedGraph#EdgeWeightedGraph(In)}, or in a binary format that loads
+ * much faster: int &FORMAT;, int intersections, int roads, then for every road the int
+ * of the first node, the int of the second node and the float weight, big-endian
+ */
+public class CityGenerator {
+    public static final int FORMAT = 0x43495459; // "CITY"
+    public static final String BINARY_EXTENSION = ".bin";
+    public static final int ARTERIAL_SPACING = 8;
+    public static final int ARTERIAL_STRIDE = 4;
+    public static final double CLOSED_STREETS = 0.1;
+
+    private final int intersections;
+    private final long seed;
+    private final int columns;
+    private final int rows;
+    private int roads = -1;
+
+    /**
+     * Receives the roads of the network in the order they are generated
+     */
+    private interface Roads {
+        void road(int v, int w, double weight) throws IOException;
+    }
+
+    /**
+     * @param intersections the number of intersections, at least 100
+     * @param seed          the seed of the lengths of the blocks and of the closed streets
+     */
+    public CityGenerator(int intersections, long seed) {
+        if (intersections < 100)
+            throw new IllegalArgumentException("A city needs at least 100 intersections");
+        this.intersections = intersections;
+        this.seed = seed;
+        this.columns = (int) Math.ceil(Math.sqrt(intersections));
+        this.rows = (intersections + columns - 1) / columns;
+    }
+
+    /**
+     * Generates the roads, the same ones for the same seed
+     */
+    private void generate(Roads out) throws IOException {
+        Random random = new Random(seed);
+        double[] width = blocks(columns, random);
+        double[] height = blocks(rows, random);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int v = r * columns + c;
+                if (v >= intersections)
+                    break;
+                // Close at most one of the two streets to lower intersections, so every
+                // intersection keeps a way back to intersection 0
+                boolean closeLeft = false;
+                boolean closeUp = false;
+                if (r > 0 && c > 0 && random.nextDouble() < 2 * CLOSED_STREETS) {
+                    if (random.nextBoolean())
+                        closeLeft = true;
+                    else
+                        closeUp = true;
+                }
+                if (c > 0 && !closeLeft)
+                    out.road(v - 1, v, width[c - 1]);
+                if (r > 0 && !closeUp)
+                    out.road(v - columns, v, height[r - 1]);
+                if (r % ARTERIAL_SPACING == 0 && c >= ARTERIAL_STRIDE && c % ARTERIAL_STRIDE == 0)
+                    out.road(v - ARTERIAL_STRIDE, v, express(width, c - ARTERIAL_STRIDE, c));
+                if (c % ARTERIAL_SPACING == 0 && r >= ARTERIAL_STRIDE && r % ARTERIAL_STRIDE == 0)
+                    out.road(v - ARTERIAL_STRIDE * columns, v, express(height, r - ARTERIAL_STRIDE, r));
+            }
+        }
+    }
+
+    private static double[] blocks(int n, Random random) {
+        double[] blocks = new double[n];
+        for (int i = 0; i < n; i++)
+            blocks[i] = 1 + City.k * random.nextInt(3);
+        return blocks;
+    }
+
+    private static double express(double[] blocks, int from, int to) {
+        double length = 0;
+        for (int i = from; i < to; i++)
+            length += blocks[i];
+        return Math.max(1, Math.round(0.75 * length / City.k) * City.k);
+    }
+
+    /**
+     * @return the number of intersections
+     */
+    public int getIntersections() {
+        return intersections;
+    }
+
+    /**
+     * @return the number of roads
+     */
+    public int getRoads() {
+        if (roads < 0) {
+            final int[] n = {0};
+            final long[] nodes = {intersections};
+            try {
+                generate(new Roads() {
+                    public void road(int v, int w, double weight) {
+                        n[0]++;
+                        nodes[0] += (int) (weight / City.k) - 1;
+                    }
+                });
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            if (nodes[0] > (long) intersections * City.multiplier)
+                throw new IllegalStateException("The subdivided network does not fit in the graph of the city");
+            roads = n[0];
+        }
+        return roads;
+    }
+
+    /**
+     * @return the network as a graph, not yet subdivided
+     */
+    public EdgeWeightedGraph graph() {
+        final EdgeWeightedGraph G = new EdgeWeightedGraph(intersections);
+        getRoads();
+        try {
+            generate(new Roads() {
+                public void road(int v, int w, double weight) {
+                    // Like the text format, the second node is the one City finds
+                    G.addEdge(new Edge(w, v, weight));
+                }
+            });
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return G;
+    }
+
+    /**
+     * @return a new city on the network
+     */
+    public City city() {
+        return new City(graph());
+    }
+
+    /**
+     * Writes the network to &path;, in the binary format when the path ends with
+     * &BINARY_EXTENSION; and in the text format otherwise
+     *
+     * @param path the file
+     * @throws IOException when the file cannot be written
+     */
+    public void write(String path) throws IOException {
+        if (path.endsWith(BINARY_EXTENSION))
+            writeBinary(path);
+        else
+            writeText(path);
+    }
+
+    /**
+     * Writes the network to &path; in the text format of v_city.txt
+     *
+     * @param path the file
+     * @throws IOException when the file cannot be written
+     */
+    public void writeText(String path) throws IOException {
+        final Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), "UTF-8"), 1 << 16);
+        try {
+            out.write(intersections + "\n" + getRoads() + "\n");
+            generate(new Roads() {
+                public void road(int v, int w, double weight) throws IOException {
+                    out.write(v + " " + w + " " + (weight == Math.rint(weight) ? String.valueOf((long) weight)
+                            : String.valueOf(weight)) + "\n");
+                }
+            });
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the network to &path; in the binary format
+     *
+     * @param path the file
+     * @throws IOException when the file cannot be written
+     */
+    public void writeBinary(String path) throws IOException {
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+        try {
+            out.writeInt(FORMAT);
+            out.writeInt(intersections);
+            out.writeInt(getRoads());
+            generate(new Roads() {
+                public void road(int v, int w, double weight) throws IOException {
+                    out.writeInt(v);
+                    out.writeInt(w);
+                    out.writeFloat((float) weight);
+                }
+            });
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a network written by {@link #writeBinary(String)}
+     *
+     * @param path the file
+     * @return the network as a graph, not yet subdivided
+     * @throws IOException when the file cannot be read or is not in the binary format
+     */
+    public static EdgeWeightedGraph readBinary(String path) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16));
+        try {
+            if (in.readInt() != FORMAT)
+                throw new IOException(path + " is not a binary road network");
+            EdgeWeightedGraph G = new EdgeWeightedGraph(in.readInt());
+            int E = in.readInt();
+            for (int i = 0; i < E; i++) {
+                int w = in.readInt();
+                int v = in.readInt();
+                G.addEdge(new Edge(v, w, in.readFloat()));
+            }
+            return G;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Generates a network and writes it
+     *
+     * @param args the number of intersections, the output file, binary when it ends
+     *             with &BINARY_EXTENSION;, and the seed, optional
+     * @throws IOException when the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int intersections = Integer.parseInt(args[0]);
+        String path = args[1];
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        long started = System.currentTimeMillis();
+        CityGenerator generator = new CityGenerator(intersections, seed);
+        generator.write(path);
+        System.out.println(generator.getIntersections() + " intersections, " + generator.getRoads() + " roads, "
+                + (System.currentTimeMillis() - started) / 1000.0 + "s, written to " + path);
+    }
+}
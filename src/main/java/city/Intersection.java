@@ -7,26 +7,35 @@ import java.util.List;
 public class Intersection implements Serializable{
     private int calls = 0;
     public int index;
-    private final ArrayList<Passenger> passengerHistory;
     public List<Integer> connections = new ArrayList<>();
 
     public Intersection(int index, List<Integer> connections) {
         this.index = index;
         this.calls = 0;
         this.connections = connections;
-        this.passengerHistory = new ArrayList<>();
     }
 
     public Intersection() {
         this.index = -1;
         this.calls = 0;
-        this.passengerHistory = new ArrayList<>();
     }
 
 
+    /**
+     * Counts a call from this intersection. The passenger is not kept, an intersection
+     * is part of every {@link Request} sent to the taxis
+     *
+     * @param passenger the passenger calling
+     */
     public void receiveCall(Passenger passenger) {
         this.calls++;
-        this.passengerHistory.add(passenger);
+    }
+
+    /**
+     * @return the number of calls from this intersection
+     */
+    public int getCalls() {
+        return calls;
     }
 
 
@@ -35,7 +44,6 @@ public class Intersection implements Serializable{
         return "Intersection{" +
                 "calls=" + calls +
                 ", index=" + index +
-                ", passengerHistory=" + passengerHistory +
                 ", connections=" + connections +
                 '}';
     }
@@ -1,9 +1,9 @@
 package city;
 
-import utils.simulation.StdRandom;
 import utils.shortestPath.Path;
 
 import java.io.Serializable;
+import java.util.Random;
 
 public class Passenger implements Serializable{
     private static final double mu = 2.0;
@@ -14,9 +14,14 @@ public class Passenger implements Serializable{
     public double d;
     public final int id;
 
-    public Passenger(Intersection origin, int id) {
+    /**
+     * @param origin Intersection see {@link Intersection}
+     * @param id     the id of the passenger
+     * @param d      the travel distance, see {@link #travelDistance(Random)}
+     */
+    public Passenger(Intersection origin, int id, double d) {
         this.origin = origin;
-        this.d = getTravelDistance();
+        this.d = d;
         this.id = id;
     }
 
@@ -30,13 +35,23 @@ public class Passenger implements Serializable{
                 '}';
     }
 
-    public double getTravelDistance() {
+    /**
+     * Draws a travel distance from &random;: a normal distance, positive and rounded to
+     * the division of the graph edges, see {@link City#k}
+     *
+     * @param random the random number generator
+     * @return the travel distance
+     */
+    public static double travelDistance(Random random) {
         double d;
         // Force a positive number from the normal distribution
         do {
-            d = StdRandom.gaussian(mu, sigma);
+            d = mu + sigma * random.nextGaussian();
         } while (d < 0);
+        return legalDistance(d);
+    }
 
+    private static double legalDistance(double d) {
         // Ensure that the value is a legal distance, based on the
         // division of the graph edges
         if (Math.abs(d) - (int) d > City.k) {
@@ -13,6 +13,7 @@ public class Request implements Serializable {
     public Bid bid;
     public final int passengerID;
     public AID bidder;
+    public long callTime; // simulated time of the call, see utils.simulation.SimTime
 
     public Request(Intersection origin, DropoffPoint destination, int passengerID) {
         this.origin = origin;
@@ -0,0 +1,119 @@
+package city;
+
+import java.util.ArrayList;
+
+/**
+ * Binary format of a {@link Request} in the CFP, PROPOSE and ACCEPT_PROPOSAL messages of
+ * an auction. Only what the other side needs is written: the ids of the passenger, the
+ * origin and the destination, the time of the call and the bid, in &SIZE; bytes. The
+ * origin is looked up again in the {@link City} of the receiver, and the bidder is the
+ * sender of the message, so neither the intersection nor an AID is serialized.
+ * <p>
+ * The layout is big-endian: byte format, byte flags, int passenger, int origin,
+ * int destination, long call time, double payoff, double company. The payoffs are only
+ * meaningful when the flags have {@link #HAS_BID}
+ */
+public class RequestCodec {
+    public static final int SIZE = 38;
+    static final byte FORMAT = 0x52; // 'R', Java serialization starts with 0xAC
+    static final byte HAS_BID = 1;
+
+    private RequestCodec() {
+    }
+
+    /**
+     * @param request Request see {@link Request}
+     * @return the request in a new array of &SIZE; bytes
+     */
+    public static byte[] encode(Request request) {
+        byte[] bytes = new byte[SIZE];
+        encode(request, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Writes &request; to &bytes; from &offset;
+     *
+     * @param request Request see {@link Request}
+     * @param bytes   the buffer, with at least &SIZE; bytes from &offset;
+     * @param offset  the position of the first byte
+     */
+    public static void encode(Request request, byte[] bytes, int offset) {
+        bytes[offset] = FORMAT;
+        bytes[offset + 1] = request.bid != null ? HAS_BID : 0;
+        putInt(bytes, offset + 2, request.passengerID);
+        putInt(bytes, offset + 6, request.origin.index);
+        putInt(bytes, offset + 10, request.destination.index);
+        putLong(bytes, offset + 14, request.callTime);
+        if (request.bid != null) {
+            putLong(bytes, offset + 22, Double.doubleToRawLongBits(request.bid.payOff));
+            putLong(bytes, offset + 30, Double.doubleToRawLongBits(request.bid.company));
+        } else {
+            putLong(bytes, offset + 22, 0);
+            putLong(bytes, offset + 30, 0);
+        }
+    }
+
+    /**
+     * Reads a request written by {@link #encode(Request)}
+     *
+     * @param bytes the encoded request
+     * @param city  the city the origin is looked up in
+     * @return a new request, without bidder
+     */
+    public static Request decode(byte[] bytes, City city) {
+        return decode(bytes, 0, city);
+    }
+
+    /**
+     * Reads a request written by {@link #encode(Request, byte[], int)}
+     *
+     * @param bytes  the buffer
+     * @param offset the position of the first byte
+     * @param city   the city the origin is looked up in
+     * @return a new request, without bidder
+     */
+    public static Request decode(byte[] bytes, int offset, City city) {
+        if (bytes == null || bytes.length - offset < SIZE || bytes[offset] != FORMAT)
+            throw new IllegalArgumentException("Not an encoded request");
+        int origin = getInt(bytes, offset + 6);
+        Request request = new Request(intersection(city, origin), new DropoffPoint(getInt(bytes, offset + 10)),
+                getInt(bytes, offset + 2));
+        request.callTime = getLong(bytes, offset + 14);
+        if ((bytes[offset + 1] & HAS_BID) != 0) {
+            request.bid = new Bid();
+            request.bid.payOff = Double.longBitsToDouble(getLong(bytes, offset + 22));
+            request.bid.company = Double.longBitsToDouble(getLong(bytes, offset + 30));
+        }
+        return request;
+    }
+
+    private static Intersection intersection(City city, int index) {
+        if (city != null && index >= 0 && index < city.intersections.size()) {
+            Intersection intersection = city.intersections.get(index);
+            if (intersection.index == index)
+                return intersection;
+        }
+        return new Intersection(index, new ArrayList<Integer>());
+    }
+
+    private static void putInt(byte[] bytes, int at, int value) {
+        bytes[at] = (byte) (value >>> 24);
+        bytes[at + 1] = (byte) (value >>> 16);
+        bytes[at + 2] = (byte) (value >>> 8);
+        bytes[at + 3] = (byte) value;
+    }
+
+    private static void putLong(byte[] bytes, int at, long value) {
+        putInt(bytes, at, (int) (value >>> 32));
+        putInt(bytes, at + 4, (int) value);
+    }
+
+    private static int getInt(byte[] bytes, int at) {
+        return (bytes[at] << 24) | ((bytes[at + 1] & 0xFF) << 16) | ((bytes[at + 2] & 0xFF) << 8) | (bytes[at + 3] & 0xFF);
+    }
+
+    private static long getLong(byte[] bytes, int at) {
+        return ((long) getInt(bytes, at) << 32) | (getInt(bytes, at + 4) & 0xFFFFFFFFL);
+    }
+}
@@ -5,9 +5,9 @@ import city.*;
 import utils.io.In;
 import utils.shortestPath.DijkstraUndirectedSP;
 import utils.simulation.CallGen;
-import utils.simulation.StdRandom;
+import utils.simulation.RandomStream;
+import utils.simulation.SimTime;
 
-import java.util.Calendar;
 import java.util.Date;
 
 /**
@@ -16,8 +16,8 @@ import java.util.Date;
 public class TaxiMethods {
 
     public static final double SPEED = 30.0;
-    private static final double CHARGE_RATE_PER_KILOMETER = 40;
-    private static final double GAS_COST_PER_KILOMETER = 6;
+    public static final double CHARGE_RATE_PER_KILOMETER = 40;
+    public static final double GAS_COST_PER_KILOMETER = 6;
 
 
     /**
@@ -27,12 +27,7 @@ public class TaxiMethods {
      * @return the distance
      */
     public static int timeToSecond(Date current) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(current);
-        int hour = calendar.get(Calendar.HOUR_OF_DAY);
-        int minute = calendar.get(Calendar.MINUTE);
-        int second = calendar.get(Calendar.SECOND);
-        return (hour * 60 * 60) + (minute * 60) + (second);
+        return SimTime.secondOfDay(SimTime.of(current));
     }
 
     /**
@@ -76,7 +71,8 @@ public class TaxiMethods {
      * Considers whether the taxi currently has a passenger and needs to complete that job
      * before taking another. Iterates through the list of pending jobs and sums their total time
      * the bidding location is set to either the current taxi location if they are not processing a job
-     * or to the destination of the job last processed
+     * or to the destination of the job last processed. The fare and fuel cost per kilometer
+     * are those of &taxi;
      *
      * @param vCity               City see {@link City}
      * @param taxi                Taxi see {@link Taxi}
@@ -101,12 +97,13 @@ public class TaxiMethods {
         double chargeable_dist = getChargeableDistance(vCity, new DropoffPoint(incomingRequest.origin.index), incomingRequest.destination);
 
 
-        result.payOff = (chargeable_dist * CHARGE_RATE_PER_KILOMETER) - (total_dist * GAS_COST_PER_KILOMETER);
-        result.company = (CHARGE_RATE_PER_KILOMETER - GAS_COST_PER_KILOMETER) * chargeable_dist;
+        result.payOff = (chargeable_dist * taxi.chargeRatePerKilometer) - (total_dist * taxi.gasCostPerKilometer);
+        result.company = (taxi.chargeRatePerKilometer - taxi.gasCostPerKilometer) * chargeable_dist;
 
-        boolean markup = StdRandom.bernoulli(StdRandom.uniform());
+        RandomStream random = taxi.bidRandom(incomingRequest);
+        boolean markup = random.bernoulli(random.nextDouble());
         double multiplier = getBidMultiplier(taxi);
-        double bid_scaler = StdRandom.uniform(0.01, 0.2);
+        double bid_scaler = random.uniform(0.01, 0.2);
 
         result.payOff *= multiplier;
         result.company *= multiplier;
@@ -127,7 +124,7 @@ public class TaxiMethods {
      * @return a multiplier based on the set lambda
      */
     public static double getBidMultiplier(Taxi taxi) {
-        int callsPerHour = (int) CallGen.getCallsPerHour(taxi.runtime.getDate());
+        int callsPerHour = (int) CallGen.getCallsPerHour(taxi.runtime.now());
         if (callsPerHour == 3)
             return 1.5;
         else if (callsPerHour == 2)
@@ -0,0 +1,173 @@
+package utils.assignment;
+
+import java.util.Arrays;
+
+/**
+ * Solves the rectangular min-cost assignment problem with the Hungarian algorithm
+ * (shortest augmenting paths with potentials, O(n^2 m)).
+ * <p>
+ * Rows are added one at a time and after each row the assignment of the rows seen so
+ * far is optimal, which makes the solver usable as an anytime algorithm: when the time
+ * budget runs out the remaining rows are assigned greedily to the cheapest free column.
+ * <p>
+ * A cost of {@link Double#POSITIVE_INFINITY} marks a forbidden pair, rows that can only
+ * be matched through forbidden pairs are left unassigned
+ */
+public class HungarianAssignment {
+    private final double[][] cost;
+    private final int rows;
+    private final int cols;
+    private boolean optimal;
+
+    /**
+     * @param cost the cost matrix, every row must have the same length
+     */
+    public HungarianAssignment(double[][] cost) {
+        this.cost = cost;
+        this.rows = cost.length;
+        this.cols = rows == 0 ? 0 : cost[0].length;
+    }
+
+    /**
+     * Returns true when the last call to {@link #solve(long)} finished within its budget
+     *
+     * @return whether the last assignment is optimal
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * Computes the assignment of rows to columns
+     *
+     * @param budgetNanos the time budget in nanoseconds, values <= 0 mean no limit
+     * @return for every row the assigned column or -1 when the row is unassigned
+     */
+    public int[] solve(long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int[] result = new int[rows];
+        if (rows == 0 || cols == 0) {
+            Arrays.fill(result, -1);
+            optimal = true;
+            return result;
+        }
+
+        // The algorithm needs at most as many rows as columns, otherwise work on the transpose
+        boolean transpose = rows > cols;
+        int n = transpose ? cols : rows;
+        int m = transpose ? rows : cols;
+
+        // Forbidden pairs get a cost higher than any assignment made of allowed pairs
+        double big = 1;
+        for (double[] row : cost)
+            for (double c : row)
+                if (c != Double.POSITIVE_INFINITY)
+                    big += Math.abs(c);
+        big *= n + 1;
+
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        int solved = 0;
+        for (int i = 1; i <= n; i++) {
+            if (budgetNanos > 0 && i > 1 && System.nanoTime() > deadline)
+                break;
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double cur = at(i0 - 1, j - 1, transpose, big) - u[i0] - v[j];
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+            solved = i;
+        }
+        optimal = solved == n;
+
+        // Rows of the reduced problem that were not reached get the cheapest free column
+        int[] match = new int[n];
+        Arrays.fill(match, -1);
+        boolean[] taken = new boolean[m];
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) {
+                match[p[j] - 1] = j - 1;
+                taken[j - 1] = true;
+            }
+        }
+        for (int i = solved; i < n; i++) {
+            int best = -1;
+            for (int j = 0; j < m; j++) {
+                if (!taken[j] && at(i, j, transpose, big) < big
+                        && (best == -1 || at(i, j, transpose, big) < at(i, best, transpose, big)))
+                    best = j;
+            }
+            if (best != -1) {
+                match[i] = best;
+                taken[best] = true;
+            }
+        }
+
+        Arrays.fill(result, -1);
+        for (int i = 0; i < n; i++) {
+            if (match[i] == -1)
+                continue;
+            int r = transpose ? match[i] : i;
+            int c = transpose ? i : match[i];
+            if (cost[r][c] != Double.POSITIVE_INFINITY)
+                result[r] = c;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total cost of an assignment, unassigned rows are ignored
+     *
+     * @param assignment the result of {@link #solve(long)}
+     * @return the total cost
+     */
+    public double cost(int[] assignment) {
+        double total = 0;
+        for (int i = 0; i < assignment.length; i++)
+            if (assignment[i] != -1)
+                total += cost[i][assignment[i]];
+        return total;
+    }
+
+    private double at(int i, int j, boolean transpose, double big) {
+        double c = transpose ? cost[j][i] : cost[i][j];
+        return c == Double.POSITIVE_INFINITY ? big : c;
+    }
+}
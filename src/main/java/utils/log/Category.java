@@ -0,0 +1,12 @@
+package utils.log;
+
+/**
+ * Part of the simulation a record of the {@link EventLog} comes from
+ */
+public enum Category {
+    CALL,       // calls arriving at the coordinator
+    AUCTION,    // CFPs, replies and closing of auctions
+    AWARD,      // awards and their confirmations
+    TRIP,       // taxis driving to, picking up and dropping off passengers
+    AGENT       // agents starting and stopping
+}
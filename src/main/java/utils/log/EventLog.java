@@ -0,0 +1,345 @@
+package utils.log;
+
+import utils.simulation.SimTime;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous log of the events of the simulation. The agents do not format or write
+ * anything: a record is a fixed set of fields (simulated time, source, a message
+ * template and up to three numbers and one object) that is copied into a slot of a
+ * preallocated ring buffer. A background thread takes the records out in batches,
+ * formats them and writes them to the log file.
+ * <p>
+ * The ring buffer is a bounded multi-producer single-consumer queue (Vyukov): a
+ * producer claims a slot with one compare-and-set and publishes it with a volatile
+ * write, there are no locks. When the buffer is full the producers wait for the
+ * writer, so no record is lost.
+ * <p>
+ * The message template refers to the fields as {a}, {b}, {x} and {o}. The object is
+ * formatted by the writer thread, so it must not change after it was logged. Records
+ * below the level of their category are discarded by {@link #isEnabled(Level, Category)}
+ * before anything is copied; when no log is open every level is discarded
+ */
+public class EventLog {
+    private static final int BATCH = 4096;
+    private static volatile EventLog current;
+
+    private final int[] thresholds = new int[Category.values().length];
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final Writer out;
+    private final boolean closeOut;
+    private final Thread writer;
+    private final StringBuilder line = new StringBuilder(256);
+    private volatile long written = 0;
+    private volatile boolean running = true;
+    private final AtomicLong stalls = new AtomicLong();
+
+    private static class Slot {
+        volatile long sequence;
+        Level level;
+        Category category;
+        long time;
+        String source;
+        String text;
+        long a;
+        long b;
+        double x;
+        Object o;
+    }
+
+    /**
+     * @param out        the writer the records are written to
+     * @param closeOut   true to close &out; when the log is closed
+     * @param level      the lowest level that is logged
+     * @param categories the categories that are logged, null for all of them
+     * @param capacity   the number of records the ring buffer holds, rounded up to a power of two
+     */
+    public EventLog(Writer out, boolean closeOut, Level level, Category[] categories, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+            ring[i].sequence = i;
+        }
+        for (int c = 0; c < thresholds.length; c++)
+            thresholds[c] = categories == null ? level.ordinal() : Level.OFF.ordinal();
+        if (categories != null)
+            for (Category category : categories)
+                thresholds[category.ordinal()] = level.ordinal();
+        this.out = out;
+        this.closeOut = closeOut;
+        this.writer = new Thread(new Runnable() {
+            public void run() {
+                drain();
+            }
+        }, "event-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens the log file &path; and makes it the log of the simulation. "-" logs to the
+     * standard output. A log that was open before is closed
+     *
+     * @param path       the log file
+     * @param level      the lowest level that is logged
+     * @param categories the categories that are logged, null for all of them
+     * @return the log
+     */
+    public static synchronized EventLog open(String path, Level level, Category[] categories) {
+        Writer writer;
+        boolean closeOut = true;
+        if (path.equals("-")) {
+            writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            closeOut = false;
+        } else {
+            try {
+                writer = new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Could not open " + path, e);
+            }
+        }
+        return open(new BufferedWriter(writer, 1 << 16), closeOut, level, categories, 1 << 16);
+    }
+
+    /**
+     * Makes a log writing to &out; the log of the simulation. A log that was open
+     * before is closed
+     *
+     * @param out        the writer the records are written to
+     * @param closeOut   true to close &out; when the log is closed
+     * @param level      the lowest level that is logged
+     * @param categories the categories that are logged, null for all of them
+     * @param capacity   the number of records the ring buffer holds
+     * @return the log
+     */
+    public static synchronized EventLog open(Writer out, boolean closeOut, Level level, Category[] categories,
+                                             int capacity) {
+        EventLog log = new EventLog(out, closeOut, level, categories, capacity);
+        EventLog previous = current;
+        current = log;
+        if (previous != null)
+            previous.shutdown();
+        return log;
+    }
+
+    /**
+     * @return the log of the simulation, null when none is open
+     */
+    public static EventLog current() {
+        return current;
+    }
+
+    /**
+     * Writes the records logged so far and closes the log of the simulation
+     */
+    public static synchronized void close() {
+        EventLog log = current;
+        current = null;
+        if (log != null)
+            log.shutdown();
+    }
+
+    /**
+     * Waits until the records logged so far are written
+     */
+    public static void flush() {
+        EventLog log = current;
+        if (log != null)
+            log.awaitWritten(log.tail.get());
+    }
+
+    /**
+     * Returns true when records of &level; and &category; are logged. Callers that
+     * have to compute the fields of a record can check this first
+     *
+     * @param level    the level of the record
+     * @param category the category of the record
+     * @return true when the record would be logged
+     */
+    public static boolean isEnabled(Level level, Category category) {
+        EventLog log = current;
+        return log != null && level.ordinal() >= log.thresholds[category.ordinal()];
+    }
+
+    public static void log(Level level, Category category, long time, String source, String text) {
+        log(level, category, time, source, text, 0, 0, 0, null);
+    }
+
+    public static void log(Level level, Category category, long time, String source, String text, long a) {
+        log(level, category, time, source, text, a, 0, 0, null);
+    }
+
+    public static void log(Level level, Category category, long time, String source, String text, long a, long b) {
+        log(level, category, time, source, text, a, b, 0, null);
+    }
+
+    public static void log(Level level, Category category, long time, String source, String text, long a, double x) {
+        log(level, category, time, source, text, a, 0, x, null);
+    }
+
+    /**
+     * Logs a record
+     *
+     * @param level    the level of the record
+     * @param category the category of the record
+     * @param time     the simulated time, see {@link SimTime}, negative when there is none
+     * @param source   the name of the agent that logs the record
+     * @param text     the message template, see the class documentation
+     * @param a        the value of {a}
+     * @param b        the value of {b}
+     * @param x        the value of {x}
+     * @param o        the value of {o}
+     */
+    public static void log(Level level, Category category, long time, String source, String text,
+                           long a, long b, double x, Object o) {
+        EventLog log = current;
+        if (log != null && level.ordinal() >= log.thresholds[category.ordinal()])
+            log.append(level, category, time, source, text, a, b, x, o);
+    }
+
+    private void append(Level level, Category category, long time, String source, String text,
+                        long a, long b, double x, Object o) {
+        Slot slot;
+        long position;
+        while (true) {
+            position = tail.get();
+            slot = ring[(int) (position & mask)];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1))
+                    break;
+            } else if (difference < 0) {
+                // Full, wait for the writer
+                if (!running)
+                    return;
+                stalls.incrementAndGet();
+                LockSupport.unpark(writer);
+                Thread.yield();
+            }
+        }
+        slot.level = level;
+        slot.category = category;
+        slot.time = time;
+        slot.source = source;
+        slot.text = text;
+        slot.a = a;
+        slot.b = b;
+        slot.x = x;
+        slot.o = o;
+        slot.sequence = position + 1; // Publish
+    }
+
+    private void drain() {
+        long head = 0;
+        while (true) {
+            // Take out a batch of the published records
+            int batch = 0;
+            Slot slot;
+            while (batch < BATCH && (slot = ring[(int) (head & mask)]).sequence == head + 1) {
+                format(slot);
+                slot.o = null;
+                slot.sequence = head + ring.length; // Free for the producers
+                head++;
+                batch++;
+                try {
+                    out.append(line);
+                } catch (IOException e) {
+                    // Keep draining so the agents are not blocked
+                }
+            }
+            if (batch > 0) {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    // Ignore, see above
+                }
+                written = head;
+                continue;
+            }
+            if (!running && tail.get() == head)
+                break;
+            LockSupport.parkNanos(1000000);
+        }
+        if (closeOut) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Nothing left to do
+            }
+        }
+    }
+
+    private void format(Slot slot) {
+        line.setLength(0);
+        if (slot.time >= 0)
+            line.append('(').append(SimTime.format(slot.time)).append(") ");
+        line.append(slot.level).append(' ').append(slot.category).append(' ').append(slot.source).append(": ");
+        String text = slot.text;
+        int from = 0;
+        int at;
+        while ((at = text.indexOf('{', from)) >= 0 && at + 2 < text.length() && text.charAt(at + 2) == '}') {
+            line.append(text, from, at);
+            switch (text.charAt(at + 1)) {
+                case 'a':
+                    line.append(slot.a);
+                    break;
+                case 'b':
+                    line.append(slot.b);
+                    break;
+                case 'x':
+                    line.append(slot.x);
+                    break;
+                case 'o':
+                    line.append(slot.o);
+                    break;
+                default:
+                    line.append(text, at, at + 3);
+            }
+            from = at + 3;
+        }
+        line.append(text, from, text.length()).append(System.lineSeparator());
+    }
+
+    private void awaitWritten(long position) {
+        while (written < position && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            Thread.yield();
+        }
+    }
+
+    private void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the number of times a producer found the ring buffer full
+     */
+    public long getStalls() {
+        return stalls.get();
+    }
+
+    /**
+     * @return the number of records written so far
+     */
+    public long getWritten() {
+        return written;
+    }
+}
@@ -0,0 +1,11 @@
+package utils.log;
+
+/**
+ * Severity of a record of the {@link EventLog}, in increasing order
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    OFF
+}
@@ -0,0 +1,23 @@
+package utils.metrics;
+
+/**
+ * Why a taxi refused a call for proposals
+ */
+public enum RefuseReason {
+    /**
+     * The taxi is off duty or not in a state that takes jobs
+     */
+    OFFLINE,
+    /**
+     * The taxi is still on the way to its last job
+     */
+    BUSY,
+    /**
+     * The job would end after the shift of the taxi
+     */
+    END_OF_SHIFT,
+    /**
+     * The taxi could not price the job
+     */
+    NO_BID,
+}
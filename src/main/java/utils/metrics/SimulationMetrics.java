@@ -0,0 +1,196 @@
+package utils.metrics;
+
+import agents.Taxi;
+import utils.misc.Activity;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the call, auction and dispatch pipeline, exported over JMX as
+ * {@link #NAME} so a long run can be watched with jconsole or any other JMX client.
+ * The coordinator and every taxi update them from their own threads, so the counts are
+ * {@link StripedCounter}s and an update never waits for a lock. The activity of the taxis
+ * is not counted, it is read from the live taxis whenever it is asked for.
+ * <p>
+ * There is one instance per JVM: runs that share a platform add to the same counts
+ */
+public class SimulationMetrics implements SimulationMetricsMXBean {
+    public static final String NAME = "taxi:type=SimulationMetrics";
+    private static final SimulationMetrics metrics = new SimulationMetrics();
+    private static boolean registered = false;
+
+    public final StripedCounter callsGenerated = new StripedCounter();
+    public final StripedCounter cfpsSent = new StripedCounter();
+    public final StripedCounter auctionsOpened = new StripedCounter();
+    public final StripedCounter proposals = new StripedCounter();
+    public final StripedCounter awards = new StripedCounter();
+    public final StripedCounter dropped = new StripedCounter();
+    public final StripedCounter pathCacheHits = new StripedCounter();
+    public final StripedCounter pathCacheMisses = new StripedCounter();
+    private final StripedCounter[] refusals = new StripedCounter[RefuseReason.values().length];
+    private final StripedCounter auctionSeconds = new StripedCounter();
+    private final StripedCounter auctionMillis = new StripedCounter();
+    private final AtomicLong maxAuctionSeconds = new AtomicLong();
+    private final AtomicLong maxAuctionMillis = new AtomicLong();
+    private final Set<Taxi> taxis = Collections.newSetFromMap(new ConcurrentHashMap<Taxi, Boolean>());
+
+    private SimulationMetrics() {
+        for (int i = 0; i < refusals.length; i++)
+            refusals[i] = new StripedCounter();
+    }
+
+    /**
+     * @return the metrics of this JVM
+     */
+    public static SimulationMetrics get() {
+        return metrics;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, once
+     */
+    public static synchronized void register() {
+        if (registered)
+            return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(NAME));
+            registered = true;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + NAME, e);
+        }
+    }
+
+    public void refused(RefuseReason reason) {
+        refusals[reason.ordinal()].increment();
+    }
+
+    /**
+     * Records an awarded auction
+     *
+     * @param seconds the simulated seconds the auction was open
+     * @param millis  the wall-clock milliseconds the auction was open
+     */
+    public void awarded(long seconds, long millis) {
+        awards.increment();
+        auctionSeconds.add(seconds);
+        auctionMillis.add(millis);
+        raise(maxAuctionSeconds, seconds);
+        raise(maxAuctionMillis, millis);
+    }
+
+    private static void raise(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Retry, another thread raised it
+        }
+    }
+
+    public void addTaxi(Taxi taxi) {
+        taxis.add(taxi);
+    }
+
+    public void removeTaxi(Taxi taxi) {
+        taxis.remove(taxi);
+    }
+
+    public long getCallsGenerated() {
+        return callsGenerated.sum();
+    }
+
+    public long getCfpsSent() {
+        return cfpsSent.sum();
+    }
+
+    public long getAuctionsOpened() {
+        return auctionsOpened.sum();
+    }
+
+    public long getProposals() {
+        return proposals.sum();
+    }
+
+    public Map<String, Long> getRefusals() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (RefuseReason reason : RefuseReason.values())
+            counts.put(reason.name(), refusals[reason.ordinal()].sum());
+        return counts;
+    }
+
+    public long getAwards() {
+        return awards.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public double getMeanAuctionSeconds() {
+        long n = awards.sum();
+        return n > 0 ? (double) auctionSeconds.sum() / n : Double.NaN;
+    }
+
+    public long getMaxAuctionSeconds() {
+        return maxAuctionSeconds.get();
+    }
+
+    public double getMeanAuctionMillis() {
+        long n = awards.sum();
+        return n > 0 ? (double) auctionMillis.sum() / n : Double.NaN;
+    }
+
+    public long getMaxAuctionMillis() {
+        return maxAuctionMillis.get();
+    }
+
+    public long getPathCacheHits() {
+        return pathCacheHits.sum();
+    }
+
+    public long getPathCacheMisses() {
+        return pathCacheMisses.sum();
+    }
+
+    public double getPathCacheHitRatio() {
+        long hits = pathCacheHits.sum();
+        long lookups = hits + pathCacheMisses.sum();
+        return lookups > 0 ? (double) hits / lookups : Double.NaN;
+    }
+
+    public Map<String, Integer> getTaxiActivities() {
+        int[] counts = new int[Activity.values().length];
+        for (Taxi taxi : taxis) {
+            Activity activity = taxi.activity;
+            if (activity != null)
+                counts[activity.ordinal()]++;
+        }
+        Map<String, Integer> activities = new LinkedHashMap<>();
+        for (Activity activity : Activity.values())
+            activities.put(activity.name(), counts[activity.ordinal()]);
+        return activities;
+    }
+
+    public void reset() {
+        callsGenerated.reset();
+        cfpsSent.reset();
+        auctionsOpened.reset();
+        proposals.reset();
+        awards.reset();
+        dropped.reset();
+        pathCacheHits.reset();
+        pathCacheMisses.reset();
+        for (StripedCounter counter : refusals)
+            counter.reset();
+        auctionSeconds.reset();
+        auctionMillis.reset();
+        maxAuctionSeconds.set(0);
+        maxAuctionMillis.set(0);
+    }
+}
@@ -0,0 +1,50 @@
+package utils.metrics;
+
+import java.util.Map;
+
+/**
+ * The measurements of {@link SimulationMetrics} as they are exported over JMX. The counts
+ * are totals over every run of the JVM since the start or the last {@link #reset()}
+ */
+public interface SimulationMetricsMXBean {
+    long getCallsGenerated();
+
+    /**
+     * @return the number of CFP messages sent, one per invited taxi
+     */
+    long getCfpsSent();
+
+    long getAuctionsOpened();
+
+    long getProposals();
+
+    /**
+     * @return the number of refusals of every {@link RefuseReason}
+     */
+    Map<String, Long> getRefusals();
+
+    long getAwards();
+
+    long getDropped();
+
+    double getMeanAuctionSeconds();
+
+    long getMaxAuctionSeconds();
+
+    double getMeanAuctionMillis();
+
+    long getMaxAuctionMillis();
+
+    long getPathCacheHits();
+
+    long getPathCacheMisses();
+
+    double getPathCacheHitRatio();
+
+    /**
+     * @return the number of live taxis in every {@link utils.misc.Activity}
+     */
+    Map<String, Integer> getTaxiActivities();
+
+    void reset();
+}
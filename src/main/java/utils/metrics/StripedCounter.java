@@ -0,0 +1,83 @@
+package utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter that many threads update at the same time, in the manner of the LongAdder of
+ * Java 8. The count is spread over several cells, each on a cache line of its own, and
+ * every thread adds to the cell it was last assigned to. A thread that finds its cell
+ * contended moves to another one, so the agents do not all retry on the same value.
+ * Reading the count adds up the cells, it is exact once the updates have stopped
+ */
+public class StripedCounter {
+    private static final int PAD = 16; // Longs per cell, 128 bytes apart
+    private static final ThreadLocal<int[]> probe = new ThreadLocal<int[]>() {
+        protected int[] initialValue() {
+            long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+            return new int[]{(int) (id ^ (id >>> 32)) | 1};
+        }
+    };
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripes the number of cells, rounded up to a power of two
+     */
+    public StripedCounter(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.cells = new AtomicLongArray(size * PAD);
+        this.mask = size - 1;
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Adds &x; to the count
+     *
+     * @param x the amount
+     */
+    public void add(long x) {
+        int[] h = probe.get();
+        int i = (h[0] & mask) * PAD;
+        long v = cells.get(i);
+        if (!cells.compareAndSet(i, v, v + x)) {
+            // Contended, this thread uses another cell from now on
+            int r = h[0];
+            r ^= r << 13;
+            r ^= r >>> 17;
+            r ^= r << 5;
+            h[0] = r;
+            cells.getAndAdd(i, x);
+        }
+    }
+
+    /**
+     * @return the count
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PAD)
+            sum += cells.get(i);
+        return sum;
+    }
+
+    /**
+     * Sets the count to 0. Updates made at the same time may be lost
+     */
+    public void reset() {
+        for (int i = 0; i < cells.length(); i += PAD)
+            cells.set(i, 0);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(sum());
+    }
+}
@@ -4,7 +4,52 @@ package utils.misc;
  * Created by jherez on 6/11/16.
  */
 public enum Shift {
-    TIME_3AM_TO_1PM,
-    TIME_9AM_TO_7PM,
-    TIME_6PM_TO_4AM
+    TIME_3AM_TO_1PM(3, 13),
+    TIME_9AM_TO_7PM(9, 19),
+    TIME_6PM_TO_4AM(18, 4);
+
+    private static final int DAY = 60 * 60 * 24;
+    private final int start;
+    private final int end;
+
+    Shift(int startHour, int endHour) {
+        this.start = startHour * 3600;
+        this.end = endHour * 3600;
+    }
+
+    /**
+     * Checks whether a taxi of this shift is on duty, both ends of the shift are included
+     *
+     * @param seconds the seconds since midnight
+     * @return true when the time is within the shift
+     */
+    public boolean isOnDuty(int seconds) {
+        seconds = seconds % DAY;
+        if (start < end)
+            return seconds >= start && seconds <= end;
+        return !(seconds >= end && seconds <= start);
+    }
+
+    /**
+     * Returns the seconds until the duty status of this shift changes next. The status
+     * only changes right at or right after the start and end of the shift
+     *
+     * @param seconds the seconds since midnight
+     * @return the seconds to the next change, at most a day
+     */
+    public int secondsToNextChange(int seconds) {
+        seconds = seconds % DAY;
+        int[] candidates = {start, start + 1, end, end + 1};
+        int result = DAY;
+        for (int c : candidates) {
+            c = c % DAY;
+            if (isOnDuty(c) == isOnDuty((c + DAY - 1) % DAY))
+                continue;
+            int delta = (c - seconds + DAY) % DAY;
+            if (delta == 0)
+                delta = DAY;
+            result = Math.min(result, delta);
+        }
+        return result;
+    }
 }
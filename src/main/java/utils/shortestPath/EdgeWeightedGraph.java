@@ -29,6 +29,7 @@ import utils.io.StdOut;
 import utils.simulation.StdRandom;
 
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *  The <tt>EdgeWeightedGraph</tt> class represents an edge-weighted
@@ -58,6 +59,7 @@ public class EdgeWeightedGraph {
     private int V;
     private int E;
     private Bag<Edge>[] adj;
+    private final ConcurrentHashMap<Integer, DijkstraUndirectedSP> shortestPaths = new ConcurrentHashMap<>();
 
     /**
      * Initializes an empty edge-weighted graph with <tt>V</tt> vertices and 0 edges.
@@ -172,6 +174,17 @@ public class EdgeWeightedGraph {
             throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
     }
 
+    /**
+     * Returns the cache of the shortest paths on this graph by source node, see
+     * {@link City#getShortestPaths(EdgeWeightedGraph, int)}. Every graph has a cache of its
+     * own, the paths are only valid as long as no edge is added
+     *
+     * @return the shortest paths computed so far
+     */
+    public ConcurrentHashMap<Integer, DijkstraUndirectedSP> shortestPaths() {
+        return shortestPaths;
+    }
+
     /**
      * Adds the undirected edge <tt>e</tt> to this edge-weighted graph.
      *
@@ -0,0 +1,42 @@
+package utils.simulation;
+
+/**
+ * A call of a passenger as produced by a {@link CallSource}
+ */
+public class Call {
+    public final long time;
+    public final int origin;
+    public final int destination;
+    public final double distance;
+
+    /**
+     * @param time        the simulated time of the call, see {@link SimTime}
+     * @param origin      the node of the intersection the passenger calls from
+     * @param destination the node the passenger wants to go to
+     */
+    public Call(long time, int origin, int destination) {
+        this(time, origin, destination, Double.NaN);
+    }
+
+    /**
+     * @param time        the simulated time of the call, see {@link SimTime}
+     * @param origin      the node of the intersection the passenger calls from
+     * @param destination the node the passenger wants to go to
+     * @param distance    the travel distance of the passenger, NaN to draw it when the call arrives
+     */
+    public Call(long time, int origin, int destination, double distance) {
+        this.time = time;
+        this.origin = origin;
+        this.destination = destination;
+        this.distance = distance;
+    }
+
+    @Override
+    public String toString() {
+        return "Call{" +
+                "time=" + SimTime.format(time) +
+                ", origin=" + origin +
+                ", destination=" + destination +
+                '}';
+    }
+}
@@ -1,19 +1,47 @@
 package utils.simulation;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
 
 /**
  * Created by eduardosalazar1 on 6/6/16.
+ * <p>
+ * Generates the arrival times of the calls from a {@link DemandSchedule}. The methods
+ * taking a simulated time (see {@link SimTime}) are the ones used by the simulation,
+ * the {@link Date} variants convert the date to its local time of day and delegate to them
  */
 public class CallGen {
+    private static volatile DemandSchedule schedule = DemandSchedule.defaults();
+
+    /**
+     * Replaces the demand schedule calls are generated from
+     *
+     * @param demand DemandSchedule see {@link DemandSchedule}
+     */
+    public static void setSchedule(DemandSchedule demand) {
+        schedule = demand;
+    }
+
+    public static DemandSchedule getSchedule() {
+        return schedule;
+    }
+
     public static Date nextCall(Date current) {
         long curTimeInMs = current.getTime();
-        Double minutes = nextCallMinutes(current);
-        int addSeconds = new Double(minutes * 60.0).intValue();
-        return new Date(curTimeInMs + (addSeconds * 1000));
+        long time = SimTime.of(current);
+        double addSeconds = nextCall(time) - time;
+        return new Date(curTimeInMs + Math.round(addSeconds * 1000));
+    }
+
+    /**
+     * Returns the simulated time of the call following &current;. The time is
+     * fractional, a caller drawing call after call should pass it back unrounded so
+     * the arrivals stay a Poisson process, see {@link DemandSchedule#nextArrival(double)}
+     *
+     * @param current the simulated time, see {@link SimTime}
+     * @return the simulated time of the next call in fractional seconds
+     */
+    public static double nextCall(double current) {
+        return schedule.nextArrival(current);
     }
 
     /**
@@ -23,7 +51,17 @@ public class CallGen {
      * @return the a value for the time to pass until the next call
      */
     public static Double nextCallMinutes(Date current) {
-        return -Math.log(1.0 - StdRandom.uniform(0.0, 1.0)) / getLambda(current);
+        return nextCallMinutes(SimTime.of(current));
+    }
+
+    /**
+     * Calculate the time until the next call in minutes
+     *
+     * @param current the simulated time, see {@link SimTime}
+     * @return the a value for the time to pass until the next call
+     */
+    public static double nextCallMinutes(long current) {
+        return (schedule.nextArrival(current) - current) / 60.0;
     }
 
     /**
@@ -33,6 +71,16 @@ public class CallGen {
      * @return the lambda unit
      */
     public static double getLambda(Date current) {
+        return getLambda(SimTime.of(current));
+    }
+
+    /**
+     * Returns the lambda unit for the number of calls in a given hour for a given time of day
+     *
+     * @param current the simulated time, see {@link SimTime}
+     * @return the lambda unit
+     */
+    public static double getLambda(long current) {
         return 1.0 / (60.0 / getCallsPerHour(current));
     }
 
@@ -43,57 +91,17 @@ public class CallGen {
      * @return the average number of calls in an hour
      */
     public static double getCallsPerHour(Date current) {
-        try {
-            String string1 = "07:00:00";
-            Date time1 = new SimpleDateFormat("HH:mm:ss").parse(string1);
-            Calendar calendar1 = Calendar.getInstance();
-            calendar1.setTime(time1);
-
-            String string2 = "09:00:00";
-            Date time2 = new SimpleDateFormat("HH:mm:ss").parse(string2);
-            Calendar calendar2 = Calendar.getInstance();
-            calendar2.setTime(time2);
-
-            String string3 = "17:00:00";
-            Date time3 = new SimpleDateFormat("HH:mm:ss").parse(string3);
-            Calendar calendar3 = Calendar.getInstance();
-            calendar3.setTime(time3);
-
-            String string4 = "19:00:00";
-            Date time4 = new SimpleDateFormat("HH:mm:ss").parse(string4);
-            Calendar calendar4 = Calendar.getInstance();
-            calendar4.setTime(time4);
-
-            String string5 = "23:00:00";
-            Date time5 = new SimpleDateFormat("HH:mm:ss").parse(string5);
-            Calendar calendar5 = Calendar.getInstance();
-            calendar5.setTime(time5);
-
-
-            //Extract just the time to avoid collisions
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(current);
-
-            Date x = calendar.getTime();
-            if ((x.after(calendar1.getTime()) || x.equals(calendar1.getTime())) && x.before(calendar2.getTime())) {
-                //checks whether the current time is between 07:00:00 and 09:00:00.
-                return 3;
-            } else if ((x.after(calendar2.getTime()) || x.equals(calendar2.getTime())) && x.before(calendar3.getTime())) {
-                //checks whether the current time is between 09:00:00 and 17:00:00.
-                return 2;
-            } else if ((x.after(calendar3.getTime()) || x.equals(calendar3.getTime())) && x.before(calendar4.getTime())) {
-                //checks whether the current time is between 17:00:00 and 19:00:00.
-                return 3;
-            } else if ((x.after(calendar4.getTime()) || x.equals(calendar4.getTime())) && x.before(calendar5.getTime())) {
-                //checks whether the current time is between 19:00:00 and 23:00:00.
-                return 2;
-            }
+        return getCallsPerHour(SimTime.of(current));
+    }
 
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        // Rest of the time
-        return 1;
+    /**
+     * Returns the average number of calls in an hour for a given time of day
+     *
+     * @param current the simulated time, see {@link SimTime}
+     * @return the average number of calls in an hour
+     */
+    public static double getCallsPerHour(long current) {
+        return schedule.callsPerHour(current);
     }
 
 }
@@ -0,0 +1,15 @@
+package utils.simulation;
+
+import java.io.Closeable;
+
+/**
+ * Supplies the calls of a simulation run in the order of their time
+ */
+public interface CallSource extends Closeable {
+    /**
+     * Returns the next call, its time is never before the time of the previous one
+     *
+     * @return the next call or null when there are no calls left
+     */
+    Call next();
+}
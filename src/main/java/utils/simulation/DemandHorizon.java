@@ -0,0 +1,140 @@
+package utils.simulation;
+
+import city.City;
+import city.Passenger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The calls of a stretch of simulated time generated up front. The calls are stored
+ * as parallel arrays of primitives (struct of arrays), row &i; is the call at
+ * &times;[i] from &origins;[i] to &destinations;[i] with travel distance &distances;[i].
+ * <p>
+ * Every simulated day is generated from its own {@link RandomStream}, derived from the
+ * base seed and the number of the day. The days can therefore be generated in parallel and
+ * the calls only depend on the seed, not on the number of threads or on how the
+ * horizon is split into blocks of whole days. Starting the arrival process afresh at
+ * midnight is exact because the arrivals of a Poisson process in disjoint intervals
+ * are independent
+ */
+public class DemandHorizon {
+    public final long[] times;
+    public final int[] origins;
+    public final int[] destinations;
+    public final double[] distances;
+    public final int size;
+
+    private DemandHorizon(long[] times, int[] origins, int[] destinations, double[] distances, int size) {
+        this.times = times;
+        this.origins = origins;
+        this.destinations = destinations;
+        this.distances = distances;
+        this.size = size;
+    }
+
+    /**
+     * Generates the calls between &start; and &end;
+     *
+     * @param city     City see {@link City}
+     * @param schedule DemandSchedule see {@link DemandSchedule}
+     * @param start    the simulated time of the first possible call, see {@link SimTime}
+     * @param end      the simulated time the horizon ends at, exclusive
+     * @param seed     the base seed of the random streams
+     * @param executor the executor the days are generated on, null to generate them on the calling thread
+     * @return the calls
+     */
+    public static DemandHorizon generate(final City city, final DemandSchedule schedule, long start, long end,
+                                         final long seed, ExecutorService executor) {
+        ArrayList<Callable<DemandHorizon>> days = new ArrayList<>();
+        for (long from = start; from < end; ) {
+            final long dayStart = from;
+            final long dayEnd = Math.min(end, (SimTime.day(from) + 1) * SimTime.DAY);
+            days.add(new Callable<DemandHorizon>() {
+                public DemandHorizon call() {
+                    return generateDay(city, schedule, dayStart, dayEnd, RandomStream.of(seed, "demand", SimTime.day(dayStart)));
+                }
+            });
+            from = dayEnd;
+        }
+
+        ArrayList<DemandHorizon> parts = new ArrayList<>();
+        try {
+            if (executor == null) {
+                for (Callable<DemandHorizon> day : days)
+                    parts.add(day.call());
+            } else {
+                for (Future<DemandHorizon> day : executor.invokeAll(days))
+                    parts.add(day.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the demand", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not generate the demand", e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not generate the demand", e);
+        }
+        return concat(parts);
+    }
+
+    private static DemandHorizon generateDay(City city, DemandSchedule schedule, long start, long end, RandomStream random) {
+        int capacity = Math.max(16, (int) (schedule.maxCallsPerHour() * (end - start) / SimTime.HOUR));
+        long[] times = new long[capacity];
+        int[] origins = new int[capacity];
+        int[] destinations = new int[capacity];
+        double[] distances = new double[capacity];
+        int size = 0;
+
+        double t = start;
+        while ((t = schedule.nextArrival(t, random)) < end) {
+            if (size == times.length) {
+                capacity = 2 * capacity;
+                times = Arrays.copyOf(times, capacity);
+                origins = Arrays.copyOf(origins, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+                distances = Arrays.copyOf(distances, capacity);
+            }
+            // Origin: a random intersection, destination: a random dropoff point, not at the taxi center
+            int origin;
+            do {
+                origin = city.intersections.get(random.nextInt(city.intersections.size() - 1)).index;
+            } while (origin == city.taxiCenter);
+            int destination;
+            do {
+                destination = city.dropoffPoints.get(random.nextInt(city.dropoffPoints.size() - 1)).index;
+            } while (destination == city.taxiCenter || destination == origin);
+
+            times[size] = (long) t;
+            origins[size] = origin;
+            destinations[size] = destination;
+            distances[size] = Passenger.travelDistance(random);
+            size++;
+        }
+        return new DemandHorizon(times, origins, destinations, distances, size);
+    }
+
+    private static DemandHorizon concat(List<DemandHorizon> parts) {
+        int size = 0;
+        for (DemandHorizon part : parts)
+            size += part.size;
+        long[] times = new long[size];
+        int[] origins = new int[size];
+        int[] destinations = new int[size];
+        double[] distances = new double[size];
+        int at = 0;
+        for (DemandHorizon part : parts) {
+            System.arraycopy(part.times, 0, times, at, part.size);
+            System.arraycopy(part.origins, 0, origins, at, part.size);
+            System.arraycopy(part.destinations, 0, destinations, at, part.size);
+            System.arraycopy(part.distances, 0, distances, at, part.size);
+            at += part.size;
+        }
+        return new DemandHorizon(times, origins, destinations, distances, size);
+    }
+}
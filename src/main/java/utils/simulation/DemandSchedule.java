@@ -0,0 +1,191 @@
+package utils.simulation;
+
+import utils.io.In;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Piecewise-constant call rate over the week. The schedule is compiled once into an
+ * array with one rate per minute of the week, so looking up the rate is a single
+ * array access.
+ * <p>
+ * The text format has one entry per line: a day of the week (0-6, or * for every day),
+ * a time of day HH:mm:ss and the average number of calls per hour. Each rate holds
+ * until the next entry and the last entry of the week wraps around to the first one.
+ * Empty lines and lines starting with # are ignored. Simulated day 0 is day 0 of the
+ * week
+ */
+public class DemandSchedule {
+    public static final int MINUTES_PER_WEEK = 7 * 24 * 60;
+    private static final int WEEK = 7 * SimTime.DAY;
+
+    private final double[] callsPerHour = new double[MINUTES_PER_WEEK];
+    private final double maxCallsPerHour;
+
+    /**
+     * @param minutes the minutes of the week the rates start at, in any order
+     * @param rates   the calls per hour starting at each of &minutes;
+     */
+    public DemandSchedule(int[] minutes, double[] rates) {
+        if (minutes.length == 0 || minutes.length != rates.length)
+            throw new IllegalArgumentException("A demand schedule needs one rate per start minute");
+        Integer[] order = new Integer[minutes.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        final int[] keys = minutes;
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Integer.compare(keys[a], keys[b]);
+            }
+        });
+
+        double max = 0;
+        double rate = rates[order[order.length - 1]]; // Wraps around from the end of the week
+        int next = 0;
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+            while (next < order.length && minutes[order[next]] <= minute)
+                rate = rates[order[next++]];
+            callsPerHour[minute] = rate;
+            max = Math.max(max, rate);
+        }
+        this.maxCallsPerHour = max;
+    }
+
+    private DemandSchedule(double[] callsPerHour) {
+        double max = 0;
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+            this.callsPerHour[minute] = callsPerHour[minute];
+            max = Math.max(max, callsPerHour[minute]);
+        }
+        this.maxCallsPerHour = max;
+    }
+
+    /**
+     * Returns this schedule with every rate multiplied by &factor;
+     *
+     * @param factor the factor, at least 0
+     * @return the scaled schedule
+     */
+    public DemandSchedule scaled(double factor) {
+        if (factor < 0)
+            throw new IllegalArgumentException("The factor must not be negative");
+        double[] rates = new double[MINUTES_PER_WEEK];
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++)
+            rates[minute] = callsPerHour[minute] * factor;
+        return new DemandSchedule(rates);
+    }
+
+    /**
+     * Compiles the schedule in the file &path;, see the class documentation for the format
+     *
+     * @param path the schedule file
+     * @return the compiled schedule
+     */
+    public static DemandSchedule load(String path) {
+        In in = new In(path);
+        ArrayList<Integer> starts = new ArrayList<>();
+        ArrayList<Double> rates = new ArrayList<>();
+        while (in.hasNextLine()) {
+            String line = in.readLine().trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] fields = line.split("\\s+");
+            if (fields.length != 3)
+                throw new IllegalArgumentException("Invalid demand schedule entry: " + line);
+            int minute = (int) (SimTime.parse(fields[1]) / 60);
+            int first = fields[0].equals("*") ? 0 : Integer.parseInt(fields[0]);
+            int last = fields[0].equals("*") ? 6 : first;
+            for (int day = first; day <= last; day++) {
+                starts.add(day * 24 * 60 + minute);
+                rates.add(Double.parseDouble(fields[2]));
+            }
+        }
+        int[] minutes = new int[starts.size()];
+        double[] values = new double[rates.size()];
+        for (int i = 0; i < minutes.length; i++) {
+            minutes[i] = starts.get(i);
+            values[i] = rates.get(i);
+        }
+        return new DemandSchedule(minutes, values);
+    }
+
+    /**
+     * Returns the schedule the simulation was built with: 3 calls per hour in the rush
+     * hours 07-09 and 17-19, 2 calls per hour during the day and the evening until 23
+     * and 1 call per hour at night
+     *
+     * @return the default schedule
+     */
+    public static DemandSchedule defaults() {
+        int[] hours = {0, 7, 9, 17, 19, 23};
+        double[] rates = {1, 3, 2, 3, 2, 1};
+        int[] minutes = new int[hours.length];
+        for (int i = 0; i < hours.length; i++)
+            minutes[i] = hours[i] * 60;
+        int[] week = new int[7 * hours.length];
+        double[] weekRates = new double[week.length];
+        for (int day = 0; day < 7; day++) {
+            for (int i = 0; i < hours.length; i++) {
+                week[day * hours.length + i] = day * 24 * 60 + minutes[i];
+                weekRates[day * hours.length + i] = rates[i];
+            }
+        }
+        return new DemandSchedule(week, weekRates);
+    }
+
+    /**
+     * Returns the average number of calls in an hour at &time;
+     *
+     * @param time the simulated time, see {@link SimTime}
+     * @return the calls per hour
+     */
+    public double callsPerHour(long time) {
+        return callsPerHour[(int) (time % WEEK / 60)];
+    }
+
+    /**
+     * @return the highest rate of the schedule in calls per hour
+     */
+    public double maxCallsPerHour() {
+        return maxCallsPerHour;
+    }
+
+    /**
+     * Draws the time of the next call after &time; from the non-homogeneous Poisson
+     * process with this schedule as its rate (thinning): candidates are drawn at the
+     * highest rate of the week and each one is kept with probability rate / highest rate.
+     * Unlike drawing one exponential gap at the current rate, this handles the changes
+     * of rate between two calls exactly
+     *
+     * @param time the simulated time, see {@link SimTime}
+     * @return the simulated time of the next call in fractional seconds
+     */
+    public double nextArrival(double time) {
+        return nextArrival(time, null);
+    }
+
+    /**
+     * Draws the time of the next call like {@link #nextArrival(double)} from &random;
+     *
+     * @param time   the simulated time, see {@link SimTime}
+     * @param random the random number generator, null for {@link StdRandom}
+     * @return the simulated time of the next call in fractional seconds
+     */
+    public double nextArrival(double time, Random random) {
+        if (maxCallsPerHour <= 0)
+            return Double.POSITIVE_INFINITY;
+        double lambda = maxCallsPerHour / 3600.0; // calls per second
+        double t = time;
+        do {
+            t += -Math.log(1.0 - uniform(random)) / lambda;
+        } while (uniform(random) * maxCallsPerHour >= callsPerHour((long) t));
+        return t;
+    }
+
+    private static double uniform(Random random) {
+        return random == null ? StdRandom.uniform() : random.nextDouble();
+    }
+}
@@ -0,0 +1,14 @@
+package utils.simulation;
+
+/**
+ * Receives the events scheduled on the simulation clock, see {@link Timer#schedule}
+ */
+public interface EventHandler {
+
+    /**
+     * Called when the simulated clock reaches the time of the event
+     *
+     * @param event SimEvent see {@link SimEvent}
+     */
+    void handle(SimEvent event);
+}
@@ -0,0 +1,14 @@
+package utils.simulation;
+
+/**
+ * Kinds of events handled by the simulation clock, see {@link Timer}
+ */
+public enum EventType {
+    CALL_ARRIVAL,
+    BID_CLOSE,
+    BATCH_CLOSE,
+    PICKUP,
+    DROPOFF,
+    SHIFT_CHANGE,
+    HORIZON
+}
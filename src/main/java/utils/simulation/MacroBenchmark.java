@@ -0,0 +1,221 @@
+package utils.simulation;
+
+import city.City;
+import city.CityGenerator;
+import jade.wrapper.ContainerController;
+import utils.io.Out;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * End-to-end throughput of the whole simulation: taxis, coordinator, auctions and
+ * shortest paths on a headless JADE platform. Every combination of a road network, a
+ * fleet and a demand scale is simulated for the same horizon, one run at a time so the
+ * runs do not compete for the cores, and measured by
+ * <ul>
+ * <li>calls handled per wall-clock second and simulated seconds per wall-clock second</li>
+ * <li>the 50th, 95th and 99th percentile of the wall-clock milliseconds of an auction</li>
+ * <li>the peak of the heap during the run and the collections and time of the garbage collectors</li>
+ * </ul>
+ * Each run writes one row to a CSV table, so the table has the scaling curves of the
+ * simulation over the fleet, the network and the demand. Every network starts with a
+ * warm-up run of its first fleet and demand that is not written: it computes the shortest
+ * paths of the network, so the first point of each curve does not pay for them, and on
+ * the first network it also warms up the JIT
+ */
+public class MacroBenchmark {
+    private final SimulationConfig base;
+    private final String[] cities;
+    private final int[] fleets;
+    private final double[] scales;
+    private final Out table;
+
+    /**
+     * @param base   the configuration the other parameters are taken from, with a horizon
+     * @param cities the road networks, see {@link #city(String)}
+     * @param fleets the numbers of taxis of every shift
+     * @param scales the factors of the demand, see {@link SimulationConfig#demandScale}
+     * @param table  the CSV table the rows are written to
+     */
+    public MacroBenchmark(SimulationConfig base, String[] cities, int[] fleets, double[] scales, Out table) {
+        if (base.horizon <= 0)
+            throw new IllegalArgumentException("A benchmark needs a simulation horizon");
+        this.base = base;
+        this.cities = cities;
+        this.fleets = fleets;
+        this.scales = scales;
+        this.table = table;
+    }
+
+    /**
+     * Runs the benchmark on a new JADE main container
+     *
+     * @param progress where a line per run is printed, the agents print to the standard output
+     * @throws InterruptedException when interrupted while waiting for a run
+     */
+    public void run(PrintStream progress) throws InterruptedException {
+        ContainerController container = RunPool.startPlatform();
+        try {
+            run(container, progress);
+        } finally {
+            RunPool.stopPlatform();
+        }
+    }
+
+    /**
+     * Runs the benchmark on &container;
+     *
+     * @param container the container the agents are created in
+     * @param progress  where a line per run is printed
+     * @throws InterruptedException when interrupted while waiting for a run
+     */
+    public void run(ContainerController container, PrintStream progress) throws InterruptedException {
+        table.println("city,intersections,nodes,taxis,demand_scale,simulated_seconds,wall_millis,calls,awarded,dropped,"
+                + "calls_per_second,speed_up,auction_p50_ms,auction_p95_ms,auction_p99_ms,peak_heap_bytes,"
+                + "gc_count,gc_millis");
+        progress.printf("%-28s %6s %6s %8s %10s %9s %8s %8s %8s %9s %8s%n", "City", "Taxis", "Scale", "Calls",
+                "Calls/s", "Speed-up", "p50 ms", "p95 ms", "p99 ms", "Heap MB", "GC ms");
+        for (String path : cities) {
+            City city = city(path);
+            RunPool pool = new RunPool(container, city, 1);
+            measure(pool, config(fleets[0], scales[0]));
+            for (int taxis : fleets) {
+                for (double scale : scales) {
+                    Measurement m = measure(pool, config(taxis, scale));
+                    RunResult r = m.result;
+                    double calls = r.calls / (r.wallMillis / 1000.0);
+                    double speedUp = r.simulatedSeconds / (r.wallMillis / 1000.0);
+                    table.println(path + ',' + city.intersections.size() + ',' + city.G.V() + ',' + taxis + ','
+                            + scale + ',' + r.simulatedSeconds + ',' + r.wallMillis + ',' + r.calls + ','
+                            + r.awarded + ',' + r.dropped + ',' + calls + ',' + speedUp + ','
+                            + r.auctionMillis.percentile(50) + ',' + r.auctionMillis.percentile(95) + ','
+                            + r.auctionMillis.percentile(99) + ',' + m.peakHeap + ',' + m.gcCount + ',' + m.gcMillis);
+                    progress.printf("%-28s %6d %6.2f %8d %10.1f %9.0f %8.0f %8.0f %8.0f %9.1f %8d%n", shorten(path), taxis,
+                            scale, r.calls, calls, speedUp, r.auctionMillis.percentile(50),
+                            r.auctionMillis.percentile(95), r.auctionMillis.percentile(99),
+                            m.peakHeap / (1024.0 * 1024.0), m.gcMillis);
+                }
+            }
+        }
+    }
+
+    private SimulationConfig config(int taxis, double scale) {
+        SimulationConfig config = base.copy();
+        config.taxisPerShift = new int[]{taxis, taxis, taxis};
+        config.demandScale = scale;
+        return config;
+    }
+
+    /**
+     * @param path a road network, see {@link City#City(String)}, or a number of
+     *             intersections for a network from {@link CityGenerator}
+     * @return a new city on the network
+     */
+    private static City city(String path) {
+        if (path.matches("\\d+"))
+            return new CityGenerator(Integer.parseInt(path), 1).city();
+        return new City(path);
+    }
+
+    private static String shorten(String path) {
+        return path.length() <= 28 ? path : "..." + path.substring(path.length() - 25);
+    }
+
+    /**
+     * Result of a run with the memory and the garbage collection it took
+     */
+    private static class Measurement {
+        RunResult result;
+        long peakHeap;
+        long gcCount;
+        long gcMillis;
+    }
+
+    private static Measurement measure(RunPool pool, SimulationConfig config) throws InterruptedException {
+        final Measurement m = new Measurement();
+        System.gc();
+        for (MemoryPoolMXBean memory : ManagementFactory.getMemoryPoolMXBeans())
+            if (memory.getType() == MemoryType.HEAP)
+                memory.resetPeakUsage();
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount -= Math.max(0, gc.getCollectionCount());
+            gcMillis -= Math.max(0, gc.getCollectionTime());
+        }
+
+        pool.submit(config, new RunListener() {
+            public void finished(RunResult result) {
+                m.result = result;
+            }
+        });
+        pool.await();
+
+        for (MemoryPoolMXBean memory : ManagementFactory.getMemoryPoolMXBeans())
+            if (memory.getType() == MemoryType.HEAP)
+                m.peakHeap += memory.getPeakUsage().getUsed();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        m.gcCount = gcCount;
+        m.gcMillis = gcMillis;
+        return m;
+    }
+
+    private static int[] ints(String list) {
+        String[] items = list.split(",");
+        int[] values = new int[items.length];
+        for (int i = 0; i < items.length; i++)
+            values[i] = Integer.parseInt(items[i].trim());
+        return values;
+    }
+
+    private static double[] doubles(String list) {
+        String[] items = list.split(",");
+        double[] values = new double[items.length];
+        for (int i = 0; i < items.length; i++)
+            values[i] = Double.parseDouble(items[i].trim());
+        return values;
+    }
+
+    /**
+     * Runs the benchmark and prints a line per run
+     *
+     * @param args comma-separated taxis per shift, comma-separated road networks or
+     *             numbers of intersections, comma-separated demand scales, simulated days, seed and the output
+     *             table, all optional
+     * @throws InterruptedException when interrupted while waiting for a run
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int[] fleets = ints(args.length > 0 ? args[0] : "2,4,8,16");
+        String[] cities = (args.length > 1 ? args[1] : "src/main/resources/v_city.txt").split(",");
+        double[] scales = doubles(args.length > 2 ? args[2] : "1,2,4");
+        double days = args.length > 3 ? Double.parseDouble(args[3]) : 1;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        String output = args.length > 5 ? args[5] : "macro-benchmark.csv";
+
+        SimulationConfig config = new SimulationConfig();
+        config.horizon = (long) (days * SimTime.DAY);
+        config.seed = seed;
+        config.jmx = false;
+        Out table = new Out(output);
+
+        PrintStream console = RunPool.silenceConsole();
+        long started = System.currentTimeMillis();
+        try {
+            new MacroBenchmark(config, cities, fleets, scales, table).run(console);
+        } finally {
+            System.setOut(console);
+            table.close();
+        }
+        System.out.println(cities.length * fleets.length * scales.length + " runs of " + days + " day(s), seed " + seed
+                + ", " + (System.currentTimeMillis() - started) / 1000.0 + "s, written to " + output);
+        // The platform leaves threads of its own behind
+        System.exit(0);
+    }
+}
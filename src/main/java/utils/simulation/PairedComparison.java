@@ -0,0 +1,193 @@
+package utils.simulation;
+
+import city.City;
+import jade.wrapper.ContainerController;
+import utils.stats.RunningStats;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Compares configurations of the simulation, e.g. auction mechanisms or fleet sizes,
+ * with common random numbers. Replication &r; of every configuration runs with the same
+ * seed and with {@link SimulationConfig#commonRandomNumbers} on, so the configurations
+ * face the same calls and the taxis draw the same markups. The results are reported as
+ * the differences to the first configuration, paired by replication: the noise the
+ * runs have in common cancels out, so the confidence intervals of the differences are
+ * much narrower than those of independent runs with the same number of replications.
+ * <p>
+ * Without common random numbers every run gets a seed of its own, which gives the
+ * independent comparison to measure the variance reduction against
+ */
+public class PairedComparison {
+    private final String[] names;
+    private final SimulationConfig[] configs;
+    private final int replications;
+    private final int parallelism;
+    private final long masterSeed;
+    private final boolean common;
+    private RunResult[][] results;
+
+    /**
+     * @param names        the names of the configurations
+     * @param configs      the configurations, the first one is the baseline
+     * @param replications the number of runs per configuration
+     * @param parallelism  the number of runs at the same time
+     * @param masterSeed   the seed the seeds of the runs are derived from
+     * @param common       true to use common random numbers
+     */
+    public PairedComparison(String[] names, SimulationConfig[] configs, int replications, int parallelism,
+                            long masterSeed, boolean common) {
+        if (names.length != configs.length || configs.length < 2)
+            throw new IllegalArgumentException("Compare at least two named configurations");
+        if (replications < 2)
+            throw new IllegalArgumentException("Paired differences need at least two replications");
+        for (SimulationConfig config : configs)
+            if (config.horizon <= 0)
+                throw new IllegalArgumentException("A comparison needs a simulation horizon");
+        this.names = names;
+        this.configs = configs;
+        this.replications = replications;
+        this.parallelism = parallelism;
+        this.masterSeed = masterSeed;
+        this.common = common;
+    }
+
+    /**
+     * Runs the comparison on a new JADE main container and waits for all the runs
+     *
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void run() throws InterruptedException {
+        ContainerController container = RunPool.startPlatform();
+        try {
+            run(container, new City());
+        } finally {
+            RunPool.stopPlatform();
+        }
+    }
+
+    /**
+     * Runs the comparison on &container; and waits for all the runs
+     *
+     * @param container the container the agents are created in
+     * @param city      the city whose road network every run uses
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void run(ContainerController container, City city) throws InterruptedException {
+        final RunResult[][] results = new RunResult[configs.length][replications];
+        RunPool pool = new RunPool(container, city, parallelism);
+        // The runs of a replication are started together, so they share the load of the machine
+        for (int r = 0; r < replications; r++) {
+            for (int c = 0; c < configs.length; c++) {
+                SimulationConfig config = configs[c].copy();
+                config.commonRandomNumbers = common;
+                config.seed = ReplicationRunner.seed(masterSeed, common ? r : c * replications + r);
+                final int variant = c;
+                final int replication = r;
+                pool.submit(config, new RunListener() {
+                    public void finished(RunResult result) {
+                        results[variant][replication] = result;
+                    }
+                });
+            }
+        }
+        pool.await();
+        this.results = results;
+    }
+
+    /**
+     * Returns the statistics of measure &measure; of configuration &c;
+     *
+     * @param c       the number of the configuration
+     * @param measure the number of the measure, see {@link RunResult#MEASURES}
+     * @return the statistics over the replications
+     */
+    public RunningStats stats(int c, int measure) {
+        RunningStats stats = new RunningStats();
+        for (RunResult result : results[c])
+            stats.add(result.measures()[measure]);
+        return stats;
+    }
+
+    /**
+     * Returns the statistics of the differences of measure &measure; between
+     * configuration &c; and the first configuration, paired by replication
+     *
+     * @param c       the number of the configuration
+     * @param measure the number of the measure, see {@link RunResult#MEASURES}
+     * @return the statistics of the differences
+     */
+    public RunningStats difference(int c, int measure) {
+        RunningStats stats = new RunningStats();
+        for (int r = 0; r < replications; r++)
+            stats.add(results[c][r].measures()[measure] - results[0][r].measures()[measure]);
+        return stats;
+    }
+
+    /**
+     * Returns the means of every configuration and the paired differences to the first
+     * one. The variance reduction is the variance of the difference of independent runs
+     * divided by the variance of the paired differences, about 1 without common random
+     * numbers
+     *
+     * @return the summary
+     */
+    public String summarize() {
+        StringBuilder summary = new StringBuilder();
+        for (int m = 0; m < RunResult.MEASURES.length; m++) {
+            summary.append(RunResult.MEASURES[m]).append('\n');
+            for (int c = 0; c < configs.length; c++)
+                summary.append(String.format("  %-20s %s%n", names[c], stats(c, m)));
+            for (int c = 1; c < configs.length; c++) {
+                RunningStats difference = difference(c, m);
+                double independent = stats(c, m).getVariance() + stats(0, m).getVariance();
+                summary.append(String.format("  %-20s %s", names[c] + " - " + names[0], difference));
+                if (difference.getVariance() > 0)
+                    summary.append(String.format(", variance reduction %.1f", independent / difference.getVariance()));
+                summary.append('\n');
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Compares auction mechanisms
+     *
+     * @param args replications, parallelism, simulated days, master seed, crn or independent
+     *             and the mechanisms, all optional
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int replications = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long days = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        long masterSeed = args.length > 3 ? Long.parseLong(args[3]) : System.currentTimeMillis();
+        boolean common = args.length <= 4 || !args[4].equals("independent");
+        String[] mechanisms = args.length > 6 ? Arrays.copyOfRange(args, 5, args.length)
+                : new String[]{"vickrey", "first-price"};
+
+        SimulationConfig[] configs = new SimulationConfig[mechanisms.length];
+        for (int c = 0; c < configs.length; c++) {
+            configs[c] = new SimulationConfig();
+            configs[c].horizon = days * SimTime.DAY;
+            configs[c].mechanism = mechanisms[c];
+        }
+        PairedComparison comparison = new PairedComparison(mechanisms, configs, replications, parallelism,
+                masterSeed, common);
+
+        PrintStream console = RunPool.silenceConsole();
+        long started = System.currentTimeMillis();
+        try {
+            comparison.run();
+        } finally {
+            System.setOut(console);
+        }
+        System.out.println(replications + " replications of " + days + " day(s) with "
+                + (common ? "common" : "independent") + " random numbers, " + parallelism
+                + " in parallel, master seed " + masterSeed + ", " + (System.currentTimeMillis() - started) / 1000.0 + "s");
+        System.out.print(comparison.summarize());
+        // The platform leaves threads of its own behind
+        System.exit(0);
+    }
+}
@@ -0,0 +1,163 @@
+package utils.simulation;
+
+import city.City;
+import jade.wrapper.ContainerController;
+import utils.io.Out;
+
+import java.io.PrintStream;
+
+/**
+ * Runs the simulation at every point of a {@link SweepDesign}, &replications; times per
+ * point, on a {@link RunPool}. Every run writes one row to a CSV table as soon as it
+ * finishes, so the results of a long sweep are kept even when it is stopped halfway.
+ * <p>
+ * Each row has the number of the point and of the replication, the values the
+ * parameters were set to, the seed of the run and its {@link RunResult}. The seed of a
+ * run is derived from the master seed and the number of the run
+ */
+public class ParameterSweep {
+    private final SimulationConfig base;
+    private final SweepDesign design;
+    private final int replications;
+    private final int parallelism;
+    private final long masterSeed;
+    private final Out table;
+
+    /**
+     * @param base         the configuration the parameters that are not varied are taken from
+     * @param design       the points of the sweep
+     * @param replications the number of runs per point
+     * @param parallelism  the number of runs at the same time
+     * @param masterSeed   the seed the seeds of the runs are derived from
+     * @param table        the CSV table the rows are written to
+     */
+    public ParameterSweep(SimulationConfig base, SweepDesign design, int replications, int parallelism,
+                          long masterSeed, Out table) {
+        if (base.horizon <= 0)
+            throw new IllegalArgumentException("A sweep needs a simulation horizon");
+        if (replications < 1)
+            throw new IllegalArgumentException("Replications must be positive");
+        this.base = base;
+        this.design = design;
+        this.replications = replications;
+        this.parallelism = parallelism;
+        this.masterSeed = masterSeed;
+        this.table = table;
+    }
+
+    /**
+     * Runs the sweep on a new JADE main container and waits for all the runs
+     *
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void run() throws InterruptedException {
+        ContainerController container = RunPool.startPlatform();
+        try {
+            run(container, new City());
+        } finally {
+            RunPool.stopPlatform();
+        }
+    }
+
+    /**
+     * Runs the sweep on &container; and waits for all the runs
+     *
+     * @param container the container the agents are created in
+     * @param city      the city whose road network every run uses
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void run(ContainerController container, City city) throws InterruptedException {
+        table.println(header());
+        RunPool pool = new RunPool(container, city, parallelism);
+        for (int i = 0; i < design.size(); i++) {
+            for (int r = 0; r < replications; r++) {
+                final SimulationConfig config = design.configure(base, i);
+                config.seed = ReplicationRunner.seed(masterSeed, i * replications + r);
+                final int point = i;
+                final int replication = r;
+                pool.submit(config, new RunListener() {
+                    public void finished(RunResult result) {
+                        String row = row(point, replication, config, result);
+                        synchronized (table) {
+                            table.println(row);
+                        }
+                    }
+                });
+            }
+        }
+        pool.await();
+    }
+
+    private String header() {
+        StringBuilder header = new StringBuilder("point,replication");
+        for (SweepParameter parameter : design.parameters)
+            header.append(',').append(parameter.name().toLowerCase());
+        return header.append(",seed,simulated_seconds,wall_millis,calls,awarded,dropped,late_replies,"
+                + "driver_payoff,company_payoff,mean_wait,wait_p50,wait_p95,wait_p99,wait_within_policy").toString();
+    }
+
+    private String row(int point, int replication, SimulationConfig config, RunResult result) {
+        StringBuilder row = new StringBuilder();
+        row.append(point).append(',').append(replication);
+        for (SweepParameter parameter : design.parameters)
+            row.append(',').append(parameter.get(config));
+        return row.append(',').append(result.seed)
+                .append(',').append(result.simulatedSeconds)
+                .append(',').append(result.wallMillis)
+                .append(',').append(result.calls)
+                .append(',').append(result.awarded)
+                .append(',').append(result.dropped)
+                .append(',').append(result.lateReplies)
+                .append(',').append(result.driverPayoff)
+                .append(',').append(result.companyPayoff)
+                .append(',').append(result.meanWait)
+                .append(',').append(result.waits.percentile(50))
+                .append(',').append(result.waits.percentile(95))
+                .append(',').append(result.waits.percentile(99))
+                .append(',').append(result.waits.fractionAtOrBelow(RunResult.WAIT_POLICY)).toString();
+    }
+
+    /**
+     * Sweeps the fleet of every shift and the fare and fuel cost per kilometer
+     *
+     * @param args grid or lhs, the number of points of lhs, parallelism, simulated days,
+     *             master seed and the output table, all optional
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String kind = args.length > 0 ? args[0] : "lhs";
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long days = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        long masterSeed = args.length > 4 ? Long.parseLong(args[4]) : System.currentTimeMillis();
+        String output = args.length > 5 ? args[5] : "sweep.csv";
+
+        SweepParameter[] parameters = SweepParameter.values();
+        SweepDesign design;
+        if (kind.equals("grid")) {
+            double[] taxis = {2, 4, 6};
+            design = SweepDesign.grid(parameters, new double[][]{taxis, taxis, taxis, {30, 40, 50}, {4, 6, 8}});
+        } else {
+            design = SweepDesign.latinHypercube(parameters, new double[]{1, 1, 1, 20, 3}, new double[]{8, 8, 8, 60, 10},
+                    samples, RandomStream.of(masterSeed, "design", 0));
+        }
+
+        SimulationConfig config = new SimulationConfig();
+        config.horizon = days * SimTime.DAY;
+        Out table = new Out(output);
+        ParameterSweep sweep = new ParameterSweep(config, design, 1, parallelism, masterSeed, table);
+
+        PrintStream console = RunPool.silenceConsole();
+        long started = System.currentTimeMillis();
+        try {
+            sweep.run();
+        } finally {
+            System.setOut(console);
+            table.close();
+        }
+        System.out.println(design.size() + " runs of " + days + " day(s), " + parallelism + " in parallel, master seed "
+                + masterSeed + ", " + (System.currentTimeMillis() - started) / 1000.0 + "s, written to " + output);
+        // The platform leaves threads of its own behind
+        System.exit(0);
+    }
+}
@@ -0,0 +1,54 @@
+package utils.simulation;
+
+import city.City;
+import city.Passenger;
+
+/**
+ * Synthesizes calls: the arrival times come from a {@link DemandSchedule}, by default
+ * the one of {@link CallGen}, the origin is a random intersection and the destination a
+ * random dropoff point, neither of them at the taxi center
+ */
+public class PoissonCallSource implements CallSource {
+    private final City city;
+    private final RandomStream random;
+    private final DemandSchedule schedule;
+    private double clock; // arrival time of the last call, fractional so the thinning stays exact
+
+    /**
+     * @param city   City see {@link City}
+     * @param start  the simulated time the first call follows, see {@link SimTime}
+     * @param random the random stream of the calls
+     */
+    public PoissonCallSource(City city, long start, RandomStream random) {
+        this(city, CallGen.getSchedule(), start, random);
+    }
+
+    /**
+     * @param city     City see {@link City}
+     * @param schedule the rates of the calls
+     * @param start    the simulated time the first call follows, see {@link SimTime}
+     * @param random   the random stream of the calls
+     */
+    public PoissonCallSource(City city, DemandSchedule schedule, long start, RandomStream random) {
+        this.city = city;
+        this.schedule = schedule;
+        this.clock = start;
+        this.random = random;
+    }
+
+    public Call next() {
+        clock = schedule.nextArrival(clock, random);
+        int origin;
+        do {
+            origin = random.uniform(0, city.intersections.size() - 1);
+        } while (city.intersections.get(origin).index == city.taxiCenter);
+        int destination;
+        do {
+            destination = city.dropoffPoints.get(random.uniform(0, city.dropoffPoints.size() - 1)).index;
+        } while (destination == city.taxiCenter || destination == origin);
+        return new Call((long) clock, city.intersections.get(origin).index, destination, Passenger.travelDistance(random));
+    }
+
+    public void close() {
+    }
+}
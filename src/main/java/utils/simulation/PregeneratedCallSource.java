@@ -0,0 +1,95 @@
+package utils.simulation;
+
+import city.City;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Synthesizes the same kind of calls as {@link PoissonCallSource}, but generates them
+ * up front in blocks of whole simulated days that end at midnight, see {@link DemandHorizon}.
+ * While the calls of one block are consumed the next block is generated in the
+ * background, so handing out a call only reads one row of the block
+ */
+public class PregeneratedCallSource implements CallSource {
+    private final City city;
+    private final DemandSchedule schedule;
+    private final long blockDays;
+    private final long seed;
+    private final ExecutorService prefetcher;
+    private final ExecutorService workers;
+    private DemandHorizon block;
+    private int row = 0;
+    private long blockEnd;
+    private Future<DemandHorizon> next;
+
+    /**
+     * @param city         City see {@link City}
+     * @param schedule     DemandSchedule see {@link DemandSchedule}
+     * @param start        the simulated time the first call follows, see {@link SimTime}
+     * @param blockSeconds the simulated seconds generated at once, rounded up to whole days
+     * @param seed         the base seed of the random streams
+     * @param threads      the number of threads generating the days of a block
+     */
+    public PregeneratedCallSource(City city, DemandSchedule schedule, long start, long blockSeconds, long seed, int threads) {
+        this.city = city;
+        this.schedule = schedule;
+        this.blockDays = Math.max(1, (blockSeconds + SimTime.DAY - 1) / SimTime.DAY);
+        this.seed = seed;
+        this.prefetcher = Executors.newSingleThreadExecutor(daemons("demand-prefetch"));
+        this.workers = threads > 1 ? Executors.newFixedThreadPool(threads, daemons("demand-worker")) : null;
+        this.blockEnd = (SimTime.day(start) + blockDays) * SimTime.DAY;
+        this.block = DemandHorizon.generate(city, schedule, start, blockEnd, seed, workers);
+        prefetch();
+    }
+
+    public Call next() {
+        if (schedule.maxCallsPerHour() <= 0)
+            return null;
+        while (row == block.size) {
+            try {
+                block = next.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Could not generate the demand", e.getCause());
+            }
+            row = 0;
+            blockEnd += blockDays * SimTime.DAY;
+            prefetch();
+        }
+        Call call = new Call(block.times[row], block.origins[row], block.destinations[row], block.distances[row]);
+        row++;
+        return call;
+    }
+
+    private void prefetch() {
+        final long from = blockEnd;
+        next = prefetcher.submit(new Callable<DemandHorizon>() {
+            public DemandHorizon call() {
+                return DemandHorizon.generate(city, schedule, from, from + blockDays * SimTime.DAY, seed, workers);
+            }
+        });
+    }
+
+    public void close() {
+        prefetcher.shutdownNow();
+        if (workers != null)
+            workers.shutdownNow();
+    }
+
+    private static ThreadFactory daemons(final String name) {
+        return new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
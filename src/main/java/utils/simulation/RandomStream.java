@@ -0,0 +1,161 @@
+package utils.simulation;
+
+import java.util.Random;
+
+/**
+ * A splittable pseudorandom number generator (SplitMix64) for a single agent or
+ * subsystem. Unlike {@link StdRandom}, which is one {@link Random} shared by every
+ * thread, each stream is owned by one thread, so drawing a number involves no
+ * synchronization and the numbers a stream produces do not depend on how the threads
+ * interleave.
+ * <p>
+ * Streams are derived from a master seed and a name, e.g. "taxi" and the number of
+ * the taxi, so every agent gets the same numbers in every run with the same seed
+ * regardless of the order the agents are created in. The class extends {@link Random}
+ * so a stream can be passed wherever a {@link Random} is expected
+ */
+public class RandomStream extends Random {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private long state;
+    private long seed;
+    private double nextGaussian;
+    private boolean haveNextGaussian;
+
+    /**
+     * @param seed the seed of the stream
+     */
+    public RandomStream(long seed) {
+        super(0);
+        this.state = seed;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the stream &name;/&index; derived from &masterSeed;
+     *
+     * @param masterSeed the seed of the simulation run
+     * @param name       the name of the agent or subsystem
+     * @param index      the number of the agent, 0 for subsystems
+     * @return the stream
+     */
+    public static RandomStream of(long masterSeed, String name, long index) {
+        long key = mix64(masterSeed);
+        for (int i = 0; i < name.length(); i++)
+            key = mix64(key + name.charAt(i) * GOLDEN_GAMMA);
+        return new RandomStream(mix64(key + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns a new stream seeded from this one, the two streams are statistically
+     * independent
+     *
+     * @return the new stream
+     */
+    public RandomStream split() {
+        return new RandomStream(mix64(nextLong()));
+    }
+
+    /**
+     * Returns the stream &index; derived from the seed of this stream. Unlike
+     * {@link #split()} it does not draw from this stream, so the same decision, e.g.
+     * the bid on call &index;, gets the same numbers no matter how many numbers were
+     * drawn before it
+     *
+     * @param index the number of the substream
+     * @return the substream
+     */
+    public RandomStream substream(long index) {
+        return of(seed, "substream", index);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        // Called by the constructor of Random before the fields are initialized
+        this.seed = seed;
+        state = seed;
+        haveNextGaussian = false;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    @Override
+    public double nextGaussian() {
+        // Polar method, like Random but without the lock
+        if (haveNextGaussian) {
+            haveNextGaussian = false;
+            return nextGaussian;
+        }
+        double v1, v2, s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        nextGaussian = v2 * multiplier;
+        haveNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    /**
+     * Returns a random real number uniformly in [a, b)
+     *
+     * @param a the left endpoint
+     * @param b the right endpoint
+     * @return a random real number uniformly in [a, b)
+     */
+    public double uniform(double a, double b) {
+        return a + nextDouble() * (b - a);
+    }
+
+    /**
+     * Returns a random integer uniformly in [a, b)
+     *
+     * @param a the left endpoint
+     * @param b the right endpoint
+     * @return a random integer uniformly in [a, b)
+     */
+    public int uniform(int a, int b) {
+        return a + nextInt(b - a);
+    }
+
+    /**
+     * Returns true with probability &p;
+     *
+     * @param p the probability of returning true
+     * @return true with probability &p;
+     */
+    public boolean bernoulli(double p) {
+        return nextDouble() < p;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
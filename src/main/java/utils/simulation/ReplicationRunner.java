@@ -0,0 +1,180 @@
+package utils.simulation;
+
+import city.City;
+import jade.wrapper.ContainerController;
+import utils.stats.Histogram;
+import utils.stats.RunningStats;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs independent replications of the simulation in parallel and aggregates their
+ * results. Every replication is its own {@link agents.TaxiCoordinator} with its own
+ * taxis, clock, call source and random streams, derived from the master seed and the
+ * number of the replication. The replications share the road graph and its shortest
+ * paths, see {@link RunPool}.
+ * <p>
+ * A replication ends at the horizon of the configuration, so the horizon must be set
+ */
+public class ReplicationRunner {
+    private final SimulationConfig config;
+    private final int replications;
+    private final int parallelism;
+    private final long masterSeed;
+
+    /**
+     * @param config       the configuration every replication is started from
+     * @param replications the number of replications
+     * @param parallelism  the number of replications running at the same time
+     * @param masterSeed   the seed the seeds of the replications are derived from
+     */
+    public ReplicationRunner(SimulationConfig config, int replications, int parallelism, long masterSeed) {
+        if (config.horizon <= 0)
+            throw new IllegalArgumentException("Replications need a simulation horizon");
+        if (replications < 1)
+            throw new IllegalArgumentException("Replications must be positive");
+        this.config = config;
+        this.replications = replications;
+        this.parallelism = parallelism;
+        this.masterSeed = masterSeed;
+    }
+
+    /**
+     * Runs the replications on a new JADE main container and waits for all of them
+     *
+     * @return the results in the order of the replications
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public List<RunResult> run() throws InterruptedException {
+        ContainerController container = RunPool.startPlatform();
+        try {
+            return run(container, new City());
+        } finally {
+            RunPool.stopPlatform();
+        }
+    }
+
+    /**
+     * Runs the replications on &container; and waits for all of them
+     *
+     * @param container the container the agents are created in
+     * @param city      the city whose road network every replication uses
+     * @return the results in the order of the replications
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public List<RunResult> run(ContainerController container, City city) throws InterruptedException {
+        final RunResult[] results = new RunResult[replications];
+        RunPool pool = new RunPool(container, city, parallelism);
+        for (int i = 0; i < replications; i++) {
+            final int replication = i;
+            SimulationConfig replicationConfig = config.copy();
+            replicationConfig.seed = seed(masterSeed, i);
+            pool.submit(replicationConfig, new RunListener() {
+                public void finished(RunResult result) {
+                    results[replication] = result;
+                }
+            });
+        }
+        pool.await();
+
+        ArrayList<RunResult> list = new ArrayList<>(replications);
+        for (RunResult result : results)
+            list.add(result);
+        return list;
+    }
+
+    /**
+     * Returns the seed of replication &replication;, the seeds do not depend on how
+     * many replications run at the same time
+     *
+     * @param masterSeed  the seed of the whole experiment
+     * @param replication the number of the replication
+     * @return the seed of the replication
+     */
+    public static long seed(long masterSeed, int replication) {
+        long seed = RandomStream.of(masterSeed, "replication", replication).nextLong();
+        // 0 would pick a seed from the clock
+        return seed != 0 ? seed : 1;
+    }
+
+    /**
+     * Returns the means of the results with their 95% confidence intervals, followed by
+     * the percentiles of the waits, trips and auctions of all the replications together
+     *
+     * @param results the results of the replications
+     * @return the summary, one line per measure
+     */
+    public static String summarize(List<RunResult> results) {
+        RunningStats[] stats = new RunningStats[RunResult.MEASURES.length];
+        for (int m = 0; m < stats.length; m++)
+            stats[m] = new RunningStats();
+        for (RunResult result : results) {
+            double[] measures = result.measures();
+            for (int m = 0; m < stats.length; m++)
+                if (!Double.isNaN(measures[m]))
+                    stats[m].add(measures[m]);
+        }
+        StringBuilder summary = new StringBuilder();
+        for (int m = 0; m < stats.length; m++)
+            summary.append(String.format("%-20s", RunResult.MEASURES[m] + ":")).append(stats[m]).append('\n');
+        Histogram waits = null;
+        Histogram trips = null;
+        Histogram auctions = null;
+        for (RunResult result : results) {
+            waits = merge(waits, result.waits);
+            trips = merge(trips, result.trips);
+            auctions = merge(auctions, result.auctionMillis);
+        }
+        if (waits != null)
+            summary.append(String.format("%-20s", "All waits (s):")).append(waits).append('\n');
+        if (trips != null)
+            summary.append(String.format("%-20s", "All trips (s):")).append(trips).append('\n');
+        if (auctions != null)
+            summary.append(String.format("%-20s", "All auctions (ms):")).append(auctions).append('\n');
+        return summary.toString();
+    }
+
+    private static Histogram merge(Histogram total, Histogram histogram) {
+        if (histogram == null)
+            return total;
+        if (total == null)
+            return histogram.copy();
+        total.merge(histogram);
+        return total;
+    }
+
+    /**
+     * Runs replications of the default configuration
+     *
+     * @param args replications, parallelism, simulated days and master seed, all optional
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int replications = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : java.lang.Runtime.getRuntime().availableProcessors();
+        long days = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        long masterSeed = args.length > 3 ? Long.parseLong(args[3]) : System.currentTimeMillis();
+
+        SimulationConfig config = new SimulationConfig();
+        config.horizon = days * SimTime.DAY;
+        ReplicationRunner runner = new ReplicationRunner(config, replications, parallelism, masterSeed);
+
+        // The agents log every call, only the summary is printed
+        PrintStream console = RunPool.silenceConsole();
+        List<RunResult> results;
+        long started = System.currentTimeMillis();
+        try {
+            results = runner.run();
+        } finally {
+            System.setOut(console);
+        }
+        System.out.println(replications + " replications of " + days + " day(s), " + parallelism
+                + " in parallel, master seed " + masterSeed + ", "
+                + (System.currentTimeMillis() - started) / 1000.0 + "s");
+        System.out.print(summarize(results));
+        // The platform leaves threads of its own behind
+        System.exit(0);
+    }
+}
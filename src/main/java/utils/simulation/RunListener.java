@@ -0,0 +1,14 @@
+package utils.simulation;
+
+/**
+ * Receives the result of a simulation run. It can be handed to the
+ * {@link agents.TaxiCoordinator} as its second agent argument
+ */
+public interface RunListener {
+    /**
+     * Called on the thread of the coordinator when the run ends
+     *
+     * @param result RunResult see {@link RunResult}
+     */
+    void finished(RunResult result);
+}
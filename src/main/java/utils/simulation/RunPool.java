@@ -0,0 +1,146 @@
+package utils.simulation;
+
+import city.City;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.Runtime;
+import jade.wrapper.AgentController;
+import jade.wrapper.ContainerController;
+import jade.wrapper.StaleProxyException;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs simulations on a shared JADE container, at most &parallelism; at the same
+ * time. Every run is its own {@link agents.TaxiCoordinator} on a copy of the same
+ * city, so the runs only share the road graph and its shortest paths, see
+ * {@link City#City(City)}. The agents of the runs are told apart by a name prefix
+ */
+public class RunPool {
+    private final ContainerController container;
+    private final City city;
+    private final int parallelism;
+    private final Semaphore running;
+    private int submitted = 0;
+    private int failed = 0;
+    private RuntimeException failure; // of the first failed run
+
+    /**
+     * @param container   the container the agents are created in
+     * @param city        the city whose road network every run uses
+     * @param parallelism the number of runs at the same time
+     */
+    public RunPool(ContainerController container, City city, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive");
+        this.container = container;
+        this.city = city;
+        this.parallelism = parallelism;
+        this.running = new Semaphore(parallelism);
+    }
+
+    /**
+     * Starts a JADE main container without GUI or message transport for the runs
+     *
+     * @return the container
+     */
+    public static ContainerController startPlatform() {
+        Runtime jade = Runtime.instance();
+        jade.setCloseVM(false);
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.GUI, "false");
+        profile.setParameter("nomtp", "true");
+        return jade.createMainContainer(profile);
+    }
+
+    /**
+     * Stops the JADE platform started by {@link #startPlatform()}
+     */
+    public static void stopPlatform() {
+        Runtime.instance().shutDown();
+    }
+
+    /**
+     * Replaces the standard output with one that discards everything, the coordinators
+     * print the seed, the progress and the summary of every run
+     *
+     * @return the standard output to restore with {@link System#setOut(PrintStream)}
+     */
+    public static PrintStream silenceConsole() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            public void write(int b) {
+            }
+
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        return console;
+    }
+
+    /**
+     * Starts a run of &config; once fewer than &parallelism; runs are running. The
+     * configuration is copied, the call and event logs and the trace of the run are disabled and its agents
+     * get a prefix of their own. The run must end, so the horizon must be set. A run
+     * that cannot be set up is not passed to &listener;, {@link #await()} reports it
+     *
+     * @param config   the configuration of the run
+     * @param listener receives the result of the run on the thread of its coordinator
+     * @throws InterruptedException when interrupted while waiting for a free slot
+     */
+    public void submit(SimulationConfig config, final RunListener listener) throws InterruptedException {
+        if (config.horizon <= 0)
+            throw new IllegalArgumentException("A run needs a simulation horizon");
+        running.acquire();
+        int run = submitted++;
+        SimulationConfig runConfig = config.copy();
+        runConfig.agentPrefix = "r" + run + "-";
+        runConfig.output = null;
+        runConfig.eventLog = null;
+        runConfig.trace = null;
+        // The runs already keep the cores busy
+        runConfig.demandThreads = 1;
+        RunListener release = new RunListener() {
+            public void finished(RunResult result) {
+                try {
+                    if (result.failure != null)
+                        failed(result.failure);
+                    else
+                        listener.finished(result);
+                } finally {
+                    running.release();
+                }
+            }
+        };
+        Object[] args = {runConfig, release, city};
+        try {
+            AgentController coordinator = container.createNewAgent("coord-r" + run, "agents.TaxiCoordinator", args);
+            coordinator.start();
+        } catch (StaleProxyException e) {
+            running.release();
+            throw new IllegalStateException("Could not start run " + run, e);
+        }
+    }
+
+    private synchronized void failed(RuntimeException cause) {
+        if (failed++ == 0)
+            failure = cause;
+    }
+
+    /**
+     * Waits until every submitted run has finished
+     *
+     * @throws InterruptedException  when interrupted while waiting
+     * @throws IllegalStateException when a run could not be set up, with the failure of the first one
+     */
+    public void await() throws InterruptedException {
+        running.acquire(parallelism);
+        running.release(parallelism);
+        synchronized (this) {
+            if (failed > 0)
+                throw new IllegalStateException(failed + " of " + submitted + " runs failed", failure);
+        }
+    }
+}
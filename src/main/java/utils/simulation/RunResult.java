@@ -0,0 +1,85 @@
+package utils.simulation;
+
+import utils.stats.Histogram;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Totals of one simulation run, reported by the {@link agents.TaxiCoordinator} when
+ * the run ends
+ */
+public class RunResult implements Serializable {
+    /**
+     * Names of the measures returned by {@link #measures()}
+     */
+    public static final String[] MEASURES = {"Calls", "Awarded", "Dropped", "Driver payoff", "Company payoff",
+            "Mean wait", "Wait p50", "Wait p95", "Wait p99", "Wait <= 5 min", "Company payoff/h", "Wall seconds"};
+
+    /**
+     * The wait the share of "Wait <= 5 min" is measured against, in simulated seconds
+     */
+    public static final long WAIT_POLICY = 5 * SimTime.MINUTE;
+
+    public long seed;
+    public RuntimeException failure; // why the run could not be set up, null when it ran
+    public long simulatedSeconds;
+    public long wallMillis;
+    public int calls;
+    public long awarded;
+    public long dropped;
+    public int lateReplies;
+    public double driverPayoff;
+    public double companyPayoff;
+    public long pickups;
+    public double meanWait; // simulated seconds from a call to its pickup
+    public long[] shiftAwards; // indexed by the ordinal of utils.misc.Shift
+    public double[] shiftDriverPayoff;
+    public double[] shiftCompanyPayoff;
+    public Histogram waits; // simulated seconds from a call to its pickup
+    public Histogram trips; // simulated seconds from a pickup to its dropoff
+    public Histogram auctionMillis; // wall-clock milliseconds from a CFP to its award, confirmed awards only
+    public double[] hourlyCompanyPayoff; // one entry per whole simulated hour
+    public int warmupHours;
+    public double companyPayoffPerHour; // mean of the hours after the warm-up
+
+    /**
+     * @return the measures of the run in the order of {@link #MEASURES}
+     */
+    public double[] measures() {
+        double[] wait = {Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+        if (waits != null) {
+            wait[0] = waits.percentile(50);
+            wait[1] = waits.percentile(95);
+            wait[2] = waits.percentile(99);
+            wait[3] = waits.fractionAtOrBelow(WAIT_POLICY);
+        }
+        return new double[]{calls, awarded, dropped, driverPayoff, companyPayoff, meanWait, wait[0], wait[1], wait[2],
+                wait[3], companyPayoffPerHour, wallMillis / 1000.0};
+    }
+
+    @Override
+    public String toString() {
+        return "RunResult{" +
+                "seed=" + seed +
+                ", simulatedSeconds=" + simulatedSeconds +
+                ", wallMillis=" + wallMillis +
+                ", calls=" + calls +
+                ", awarded=" + awarded +
+                ", dropped=" + dropped +
+                ", lateReplies=" + lateReplies +
+                ", driverPayoff=" + driverPayoff +
+                ", companyPayoff=" + companyPayoff +
+                ", pickups=" + pickups +
+                ", meanWait=" + meanWait +
+                ", shiftAwards=" + Arrays.toString(shiftAwards) +
+                ", shiftDriverPayoff=" + Arrays.toString(shiftDriverPayoff) +
+                ", shiftCompanyPayoff=" + Arrays.toString(shiftCompanyPayoff) +
+                ", waits=" + waits +
+                ", trips=" + trips +
+                ", auctionMillis=" + auctionMillis +
+                ", warmupHours=" + warmupHours +
+                ", companyPayoffPerHour=" + companyPayoffPerHour +
+                '}';
+    }
+}
@@ -0,0 +1,188 @@
+package utils.simulation;
+
+import city.City;
+import jade.wrapper.ContainerController;
+import utils.stats.RunningStats;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps starting replications until the 95% confidence interval of every tracked
+ * measure is narrow enough, instead of running a fixed number of them. The target of
+ * measure &m; is &targets;[m], the largest half width accepted relative to the mean
+ * (e.g. 0.05 for +/- 5%), or NaN to not track the measure.
+ * <p>
+ * The replications run on a {@link RunPool} and the rule is checked every time one
+ * finishes, after at least &minReplications;. Once it holds no further replication is
+ * started, the ones still running are waited for and included. The steady-state
+ * measures leave out the warm-up of every run, see {@link SimulationConfig#warmupTruncation}
+ */
+public class SequentialReplications {
+    private final SimulationConfig config;
+    private final double[] targets;
+    private final int minReplications;
+    private final int maxReplications;
+    private final int parallelism;
+    private final long masterSeed;
+    private final RunningStats[] stats = new RunningStats[RunResult.MEASURES.length];
+    private final List<RunResult> results = new ArrayList<>();
+
+    /**
+     * @param config          the configuration every replication is started from
+     * @param targets         the relative half width targets, one per {@link RunResult#MEASURES}
+     * @param minReplications the number of replications before the rule is checked
+     * @param maxReplications the number of replications after which the controller gives up
+     * @param parallelism     the number of replications at the same time
+     * @param masterSeed      the seed the seeds of the replications are derived from
+     */
+    public SequentialReplications(SimulationConfig config, double[] targets, int minReplications, int maxReplications,
+                                  int parallelism, long masterSeed) {
+        if (config.horizon <= 0)
+            throw new IllegalArgumentException("Replications need a simulation horizon");
+        if (targets.length != RunResult.MEASURES.length)
+            throw new IllegalArgumentException("Expected one target per measure");
+        if (minReplications < 2 || maxReplications < minReplications)
+            throw new IllegalArgumentException("Need 2 <= minReplications <= maxReplications");
+        this.config = config;
+        this.targets = targets;
+        this.minReplications = minReplications;
+        this.maxReplications = maxReplications;
+        this.parallelism = parallelism;
+        this.masterSeed = masterSeed;
+        for (int m = 0; m < stats.length; m++)
+            stats[m] = new RunningStats();
+    }
+
+    /**
+     * Runs the replications on a new JADE main container until the targets are met
+     *
+     * @return the results in the order the replications finished
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public List<RunResult> run() throws InterruptedException {
+        ContainerController container = RunPool.startPlatform();
+        try {
+            return run(container, new City());
+        } finally {
+            RunPool.stopPlatform();
+        }
+    }
+
+    /**
+     * Runs the replications on &container; until the targets are met
+     *
+     * @param container the container the agents are created in
+     * @param city      the city whose road network every replication uses
+     * @return the results in the order the replications finished
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public List<RunResult> run(ContainerController container, City city) throws InterruptedException {
+        RunPool pool = new RunPool(container, city, parallelism);
+        RunListener listener = new RunListener() {
+            public void finished(RunResult result) {
+                synchronized (stats) {
+                    results.add(result);
+                    double[] measures = result.measures();
+                    for (int m = 0; m < stats.length; m++)
+                        if (!Double.isNaN(measures[m]))
+                            stats[m].add(measures[m]);
+                }
+            }
+        };
+        // submit() waits for a free slot, so the rule is checked whenever a replication has finished
+        for (int i = 0; i < maxReplications && !isPrecise(); i++) {
+            SimulationConfig replicationConfig = config.copy();
+            replicationConfig.seed = ReplicationRunner.seed(masterSeed, i);
+            pool.submit(replicationConfig, listener);
+        }
+        pool.await();
+        synchronized (stats) {
+            return new ArrayList<>(results);
+        }
+    }
+
+    /**
+     * Checks the stopping rule
+     *
+     * @return true when at least &minReplications; finished and every tracked measure
+     * meets its target
+     */
+    public boolean isPrecise() {
+        synchronized (stats) {
+            if (results.size() < minReplications)
+                return false;
+            for (int m = 0; m < stats.length; m++) {
+                if (Double.isNaN(targets[m]))
+                    continue;
+                double halfWidth = stats[m].getHalfWidth95();
+                if (Double.isNaN(halfWidth) || halfWidth > targets[m] * Math.abs(stats[m].getMean()))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the statistics of a measure over the finished replications
+     *
+     * @param measure the number of the measure, see {@link RunResult#MEASURES}
+     * @return a copy of the statistics
+     */
+    public RunningStats stats(int measure) {
+        synchronized (stats) {
+            RunningStats copy = new RunningStats();
+            for (RunResult result : results) {
+                double value = result.measures()[measure];
+                if (!Double.isNaN(value))
+                    copy.add(value);
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Runs replications of the default configuration until the mean wait and the
+     * steady-state company payoff per hour are known within the given precision
+     *
+     * @param args relative precision, maximum replications, parallelism, simulated days
+     *             and master seed, all optional
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        double precision = args.length > 0 ? Double.parseDouble(args[0]) : 0.05;
+        int maxReplications = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long days = args.length > 3 ? Long.parseLong(args[3]) : 3;
+        long masterSeed = args.length > 4 ? Long.parseLong(args[4]) : System.currentTimeMillis();
+
+        SimulationConfig config = new SimulationConfig();
+        config.horizon = days * SimTime.DAY;
+        double[] targets = new double[RunResult.MEASURES.length];
+        for (int m = 0; m < targets.length; m++) {
+            String measure = RunResult.MEASURES[m];
+            targets[m] = measure.equals("Mean wait") || measure.equals("Company payoff/h") ? precision : Double.NaN;
+        }
+        SequentialReplications controller = new SequentialReplications(config, targets, 5, maxReplications,
+                parallelism, masterSeed);
+
+        PrintStream console = RunPool.silenceConsole();
+        List<RunResult> results;
+        long started = System.currentTimeMillis();
+        try {
+            results = controller.run();
+        } finally {
+            System.setOut(console);
+        }
+        int warmup = 0;
+        for (RunResult result : results)
+            warmup = Math.max(warmup, result.warmupHours);
+        System.out.println(results.size() + " replications of " + days + " day(s), target +/- " + 100 * precision + "% "
+                + (controller.isPrecise() ? "met" : "not met") + ", longest warm-up " + warmup + "h, master seed "
+                + masterSeed + ", " + (System.currentTimeMillis() - started) / 1000.0 + "s");
+        System.out.print(ReplicationRunner.summarize(results));
+        // The platform leaves threads of its own behind
+        System.exit(0);
+    }
+}
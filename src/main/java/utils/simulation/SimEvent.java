@@ -0,0 +1,25 @@
+package utils.simulation;
+
+/**
+ * A timestamped event of the discrete-event simulation. Events with the same time
+ * are handled in the order they were scheduled
+ */
+public class SimEvent implements Comparable<SimEvent> {
+    public final long time;
+    public final long seq;
+    public final EventType type;
+    public final EventHandler handler;
+
+    public SimEvent(long time, long seq, EventType type, EventHandler handler) {
+        this.time = time;
+        this.seq = seq;
+        this.type = type;
+        this.handler = handler;
+    }
+
+    public int compareTo(SimEvent o) {
+        if (time != o.time)
+            return Long.compare(time, o.time);
+        return Long.compare(seq, o.seq);
+    }
+}
@@ -0,0 +1,117 @@
+package utils.simulation;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Arithmetic on simulated time. A simulated time is a plain {@code long} counting the
+ * seconds since midnight of the first simulated day, so it never wraps around and
+ * comparing or adding times needs no {@link java.util.Calendar}
+ */
+public final class SimTime {
+    public static final int MINUTE = 60;
+    public static final int HOUR = 60 * MINUTE;
+    public static final int DAY = 24 * HOUR;
+
+    private SimTime() {
+    }
+
+    /**
+     * @param hour   0-23 hours
+     * @param minute 0-59 minutes
+     * @param second 0-59 seconds
+     * @return the simulated time of the given time of day on the first day
+     */
+    public static long of(int hour, int minute, int second) {
+        return hour * HOUR + minute * MINUTE + second;
+    }
+
+    /**
+     * Converts a date to its local time of day on the first day. Only meant for the
+     * edges of the simulation, e.g. dates read from files or used in tests
+     *
+     * @param date the date
+     * @return the simulated time of the local time of day of &date;
+     */
+    public static long of(Date date) {
+        long millis = date.getTime() + TimeZone.getDefault().getOffset(date.getTime());
+        long seconds = millis / 1000 % DAY;
+        return seconds < 0 ? seconds + DAY : seconds;
+    }
+
+    /**
+     * Parses a time of day in the format HH:mm:ss, missing fields count as 0
+     *
+     * @param time the time of day, e.g. 08:00:00
+     * @return the simulated time of &time; on the first day
+     */
+    public static long parse(String time) {
+        String[] fields = time.trim().split(":");
+        long result = 0;
+        for (int i = 0; i < 3; i++) {
+            result = result * 60 + (i < fields.length ? Integer.parseInt(fields[i]) : 0);
+        }
+        return result;
+    }
+
+    /**
+     * @param time the simulated time
+     * @return the day, starting at 0
+     */
+    public static long day(long time) {
+        return time / DAY;
+    }
+
+    /**
+     * @param time the simulated time
+     * @return the seconds since midnight
+     */
+    public static int secondOfDay(long time) {
+        return (int) (time % DAY);
+    }
+
+    /**
+     * @param time the simulated time
+     * @return the hour of the day, 0-23
+     */
+    public static int hourOfDay(long time) {
+        return secondOfDay(time) / HOUR;
+    }
+
+    /**
+     * @param time the simulated time
+     * @return the minute of the hour, 0-59
+     */
+    public static int minuteOfHour(long time) {
+        return secondOfDay(time) % HOUR / MINUTE;
+    }
+
+    /**
+     * @param time the simulated time
+     * @return the second of the minute, 0-59
+     */
+    public static int secondOfMinute(long time) {
+        return secondOfDay(time) % MINUTE;
+    }
+
+    /**
+     * Formats the time of day as HH:mm:ss
+     *
+     * @param time the simulated time
+     * @return the formatted time of day
+     */
+    public static String format(long time) {
+        char[] text = new char[8];
+        digits(text, 0, hourOfDay(time));
+        text[2] = ':';
+        digits(text, 3, minuteOfHour(time));
+        text[5] = ':';
+        digits(text, 6, secondOfMinute(time));
+        return new String(text);
+    }
+
+    private static void digits(char[] text, int at, int value) {
+        text[at] = (char) ('0' + value / 10);
+        text[at + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -0,0 +1,214 @@
+package utils.simulation;
+
+import utils.agentMethods.TaxiMethods;
+
+import java.io.Serializable;
+
+/**
+ * Tunable parameters of a simulation run. An instance can be handed to the
+ * {@link agents.TaxiCoordinator} as its first agent argument, otherwise the
+ * defaults below are used
+ */
+public class SimulationConfig implements Serializable, Cloneable {
+    /**
+     * Master seed of the random streams of the agents, see {@link RandomStream}.
+     * 0 picks a seed from the clock, it is printed at the start of the run
+     */
+    public long seed = 0;
+
+    /**
+     * Number of replies (proposals or refusals) that closes an auction early.
+     * A value <= 0 means every taxi in the fleet has to answer
+     */
+    public int bidQuorum = 0;
+
+    /**
+     * Simulated seconds an auction stays open before it is closed with the
+     * bids received so far
+     */
+    public long bidDeadline = 30;
+
+    /**
+     * Wall-clock milliseconds an auction stays open, 0 disables the bound. With
+     * next-event time advance the clock stands still while auctions are open,
+     * so this is what bounds the wait for taxis that do not reply
+     */
+    public long bidDeadlineMillis = 1000;
+
+    /**
+     * Number of auctions that can wait for bids or confirmations at the same
+     * time. Calls arriving while the limit is reached are queued
+     */
+    public int maxOpenAuctions = 8;
+
+    /**
+     * How many times a request is auctioned again when every bid on it went
+     * stale because the bidders won other auctions in the meantime
+     */
+    public int maxRebids = 1;
+
+    /**
+     * Simulated seconds during which closed auctions are collected and then
+     * awarded together as a min-cost assignment. A value <= 0 awards every
+     * auction on its own as soon as it closes
+     */
+    public long batchWindow = 0;
+
+    /**
+     * Wall-clock milliseconds the assignment of a batch may take, after that
+     * the remaining requests are matched greedily
+     */
+    public long batchBudgetMillis = 5;
+
+    /**
+     * Mechanism that awards the auctions, see {@link auction.AuctionMechanisms}
+     */
+    public String mechanism = "vickrey";
+
+    /**
+     * Mechanisms evaluated in shadow mode on the same bids as {@link #mechanism}
+     */
+    public String[] shadowMechanisms = {"first-price", "reserve-vickrey"};
+
+    /**
+     * How the price of a job is split: "margin" gives the company
+     * {@link #companyShare} of the margin of the bid, "commission" gives it
+     * {@link #companyShare} of the price
+     */
+    public String profitSharing = "margin";
+    public double companyShare = 0.3;
+
+    /**
+     * Highest ask accepted by the reserve-price mechanisms
+     */
+    public double reservePrice = 200;
+
+    /**
+     * Simulated seconds the clock advances on every tick and the wall-clock
+     * milliseconds between ticks. The defaults run the simulation 1000 times
+     * faster than real time. The seconds may be fractional, see {@link Timer#tick()}
+     */
+    public double tickSeconds = 1;
+    public long tickMillis = 1;
+
+    /**
+     * When true the clock jumps straight to the next scheduled event once all
+     * agents are idle, instead of advancing one tick at a time
+     */
+    public boolean nextEventTime = true;
+
+    /**
+     * Simulated seconds after which the coordinator stops the simulation,
+     * 0 runs forever
+     */
+    public long horizon = 0;
+
+    /**
+     * File with the call rates over the week, see {@link DemandSchedule}. When
+     * null the built-in schedule is used
+     */
+    public String demandSchedule = "src/main/resources/demand.txt";
+
+    /**
+     * Trace of recorded calls to replay instead of generating calls, see
+     * {@link TraceCallSource} for the formats. The time between the calls of the
+     * trace is multiplied by &traceTimeScale;
+     */
+    public String callTrace = null;
+    public double traceTimeScale = 1;
+
+    /**
+     * When true synthetic calls are generated up front, &demandBlock; simulated
+     * seconds at a time on &demandThreads; threads (0 uses every processor), see
+     * {@link PregeneratedCallSource}. Otherwise each call is drawn when the
+     * previous one arrives
+     */
+    public boolean pregenerateDemand = true;
+    public long demandBlock = 7 * SimTime.DAY;
+    public int demandThreads = 0;
+
+    /**
+     * Factor the rates of the demand schedule are multiplied by for the synthetic calls of
+     * the run. The bids still see the rates of the schedule, see
+     * {@link utils.agentMethods.TaxiMethods#getBidMultiplier}
+     */
+    public double demandScale = 1;
+
+    /**
+     * Number of taxis of each shift, indexed by the ordinal of {@link utils.misc.Shift}
+     */
+    public int[] taxisPerShift = {4, 4, 4};
+
+    /**
+     * Fare per kilometer of the trip and fuel cost per kilometer driven, see
+     * {@link utils.agentMethods.TaxiMethods#getBid}
+     */
+    public double chargeRatePerKilometer = TaxiMethods.CHARGE_RATE_PER_KILOMETER;
+    public double gasCostPerKilometer = TaxiMethods.GAS_COST_PER_KILOMETER;
+
+    /**
+     * Common random numbers: when true the random draws of a taxi for a bid come from a
+     * substream keyed by the call, see {@link RandomStream#substream(long)}, instead of
+     * from the next numbers of its stream. Runs with the same seed then see the same
+     * calls and the same markups even when their fleets or mechanisms make the taxis
+     * bid on different calls, so their results can be compared pairwise
+     */
+    public boolean commonRandomNumbers = false;
+
+    /**
+     * When true the steady-state company payoff per hour of a run leaves out the warm-up
+     * found with MSER over batches of &mserBatch; hours, see {@link utils.stats.Mser}.
+     * Batches of a whole day average out the daily cycle of the demand
+     */
+    public boolean warmupTruncation = true;
+    public int mserBatch = 24;
+
+    /**
+     * File the coordinator logs the calls to, null disables the log
+     */
+    public String output = "src/main/resources/output.txt";
+
+    /**
+     * File the agents log their events to, see {@link utils.log.EventLog}. "-" logs to
+     * the standard output and null disables the log. Only records of &logCategories; (null
+     * for all of them) with at least &logLevel; are logged
+     */
+    public String eventLog = "src/main/resources/events.log";
+    public String logLevel = "INFO";
+    public String[] logCategories = null;
+
+    /**
+     * Binary trace of the calls, auctions and trips of the run, see
+     * {@link utils.trace.TraceWriter}, null disables it. When &traceCompression; is
+     * true the blocks of the trace are deflated
+     */
+    public String trace = null;
+    public boolean traceCompression = true;
+
+    /**
+     * When true the counters of the calls, auctions and taxis are exported over JMX,
+     * see {@link utils.metrics.SimulationMetrics}
+     */
+    public boolean jmx = true;
+
+    /**
+     * Prefix of the names of the taxi agents, runs sharing a platform need
+     * different prefixes
+     */
+    public String agentPrefix = "";
+
+    /**
+     * Returns a copy of this configuration. The fleet is copied, the other arrays are shared
+     *
+     * @return the copy
+     */
+    public SimulationConfig copy() {
+        try {
+            SimulationConfig copy = (SimulationConfig) clone();
+            copy.taxisPerShift = taxisPerShift.clone();
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
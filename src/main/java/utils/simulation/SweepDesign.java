@@ -0,0 +1,112 @@
+package utils.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The points of a parameter sweep: point &i; sets &parameters;[j] to &points;[i][j]
+ */
+public class SweepDesign {
+    public final SweepParameter[] parameters;
+    public final double[][] points;
+
+    /**
+     * @param parameters the parameters that are varied
+     * @param points     the values of &parameters; at each point
+     */
+    public SweepDesign(SweepParameter[] parameters, double[][] points) {
+        for (double[] point : points)
+            if (point.length != parameters.length)
+                throw new IllegalArgumentException("Every point needs one value per parameter");
+        this.parameters = parameters;
+        this.points = points;
+    }
+
+    /**
+     * Returns the full factorial design: every combination of the levels of the parameters
+     *
+     * @param parameters the parameters that are varied
+     * @param levels     the values of each of &parameters;
+     * @return the design
+     */
+    public static SweepDesign grid(SweepParameter[] parameters, double[][] levels) {
+        if (levels.length != parameters.length)
+            throw new IllegalArgumentException("Every parameter needs its levels");
+        ArrayList<double[]> points = new ArrayList<>();
+        int[] at = new int[parameters.length];
+        while (true) {
+            double[] point = new double[parameters.length];
+            for (int j = 0; j < point.length; j++) {
+                if (levels[j].length == 0)
+                    return new SweepDesign(parameters, new double[0][]);
+                point[j] = levels[j][at[j]];
+            }
+            points.add(point);
+            // Odometer: the last parameter changes fastest
+            int j = parameters.length - 1;
+            while (j >= 0 && ++at[j] == levels[j].length)
+                at[j--] = 0;
+            if (j < 0)
+                break;
+        }
+        return new SweepDesign(parameters, points.toArray(new double[points.size()][]));
+    }
+
+    /**
+     * Returns a Latin hypercube design of &samples; points: the range of every parameter
+     * is split into &samples; equal strata and every stratum is sampled exactly once, so
+     * each parameter is covered evenly with far fewer points than a grid
+     *
+     * @param parameters the parameters that are varied
+     * @param min        the lowest value of each of &parameters;
+     * @param max        the highest value of each of &parameters;
+     * @param samples    the number of points
+     * @param random     the random number generator
+     * @return the design
+     */
+    public static SweepDesign latinHypercube(SweepParameter[] parameters, double[] min, double[] max, int samples,
+                                             Random random) {
+        if (min.length != parameters.length || max.length != parameters.length)
+            throw new IllegalArgumentException("Every parameter needs a range");
+        double[][] points = new double[samples][parameters.length];
+        int[] strata = new int[samples];
+        for (int j = 0; j < parameters.length; j++) {
+            for (int i = 0; i < samples; i++)
+                strata[i] = i;
+            // Fisher-Yates shuffle of the strata
+            for (int i = samples - 1; i > 0; i--) {
+                int k = random.nextInt(i + 1);
+                int swap = strata[i];
+                strata[i] = strata[k];
+                strata[k] = swap;
+            }
+            for (int i = 0; i < samples; i++)
+                points[i][j] = min[j] + (strata[i] + random.nextDouble()) / samples * (max[j] - min[j]);
+        }
+        return new SweepDesign(parameters, points);
+    }
+
+    /**
+     * Returns a copy of &base; with the parameters set to point &i;
+     *
+     * @param base the configuration the parameters that are not varied are taken from
+     * @param i    the number of the point
+     * @return the configuration
+     */
+    public SimulationConfig configure(SimulationConfig base, int i) {
+        SimulationConfig config = base.copy();
+        for (int j = 0; j < parameters.length; j++)
+            parameters[j].apply(config, points[i][j]);
+        return config;
+    }
+
+    public int size() {
+        return points.length;
+    }
+
+    @Override
+    public String toString() {
+        return "SweepDesign{" + Arrays.toString(parameters) + ", " + points.length + " points}";
+    }
+}
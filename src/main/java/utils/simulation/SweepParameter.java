@@ -0,0 +1,51 @@
+package utils.simulation;
+
+import utils.misc.Shift;
+
+/**
+ * A parameter of the simulation that a {@link ParameterSweep} varies. Each parameter
+ * knows how to set a value in a {@link SimulationConfig}, fleet sizes are rounded to
+ * whole taxis
+ */
+public enum SweepParameter {
+    TAXIS_3AM_TO_1PM(Shift.TIME_3AM_TO_1PM),
+    TAXIS_9AM_TO_7PM(Shift.TIME_9AM_TO_7PM),
+    TAXIS_6PM_TO_4AM(Shift.TIME_6PM_TO_4AM),
+    CHARGE_RATE_PER_KILOMETER(null),
+    GAS_COST_PER_KILOMETER(null);
+
+    private final Shift shift;
+
+    SweepParameter(Shift shift) {
+        this.shift = shift;
+    }
+
+    /**
+     * Sets this parameter of &config; to &value;
+     *
+     * @param config the configuration
+     * @param value  the value of the parameter
+     */
+    public void apply(SimulationConfig config, double value) {
+        if (shift != null)
+            config.taxisPerShift[shift.ordinal()] = (int) Math.max(0, Math.round(value));
+        else if (this == CHARGE_RATE_PER_KILOMETER)
+            config.chargeRatePerKilometer = value;
+        else
+            config.gasCostPerKilometer = value;
+    }
+
+    /**
+     * Returns the value of this parameter in &config;
+     *
+     * @param config the configuration
+     * @return the value of the parameter
+     */
+    public double get(SimulationConfig config) {
+        if (shift != null)
+            return config.taxisPerShift[shift.ordinal()];
+        else if (this == CHARGE_RATE_PER_KILOMETER)
+            return config.chargeRatePerKilometer;
+        return config.gasCostPerKilometer;
+    }
+}
@@ -1,55 +1,74 @@
 package utils.simulation;
 
-import java.util.Calendar;
-import java.util.Date;
+import jade.core.behaviours.Behaviour;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Simulated clock shared by the coordinator and the taxis. The time is a monotonic
+ * count of simulated seconds, see {@link SimTime}. Besides advancing one grain at a
+ * time the clock keeps a queue of timestamped {@link SimEvent}s, so it can also jump
+ * straight to the next event (next-event time advance). With a horizon the clock stops
+ * there: it never advances past it and no event scheduled after it is handled
+ */
 public class Timer {
 
-    private int hour; // 0-23 hours
-    private int minute; // 0-59 minutes
-    private int second; // 0-59 seconds
-    private int date;
+    private long start; // simulated time the timer was created at
+    private volatile long now; // simulated seconds since midnight of the first day
     private double grain; // 0-3600 seconds
+    private double fraction = 0; // seconds of the ticks not yet added to now
+    private final PriorityQueue<SimEvent> events = new PriorityQueue<>();
+    private final Set<Object> busy = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    private final long[] fired = new long[EventType.values().length];
+    private long seq = 0;
+    private long end = Long.MAX_VALUE; // simulated time of the horizon
+    private volatile boolean ended = false;
 
     public Timer(int h, int m, int s, double g) {
-        this.hour = h;
-        this.minute = m;
-        this.second = s;
-        this.grain = g;
-    }
-
-    public Timer(Date time, double grain) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(time);
-        this.date = calendar.get(Calendar.DATE);
-        this.hour = calendar.get(Calendar.HOUR_OF_DAY);
-        this.minute = calendar.get(Calendar.MINUTE);
-        this.second = calendar.get(Calendar.SECOND);
+        this(SimTime.of(h, m, s), g);
+    }
+
+    /**
+     * @param start the simulated time to start at, see {@link SimTime}
+     * @param grain the simulated seconds of a tick
+     */
+    public Timer(long start, double grain) {
+        this.start = start;
+        this.now = start;
         this.grain = grain;
     }
 
     public int getHour() {
-        return hour;
+        return SimTime.hourOfDay(now);
     }
 
-    public void setHour(int hour) {
-        this.hour = hour;
+    public synchronized void setHour(int hour) {
+        shift((hour - getHour()) * SimTime.HOUR);
     }
 
     public int getMinute() {
-        return minute;
+        return SimTime.minuteOfHour(now);
     }
 
-    public void setMinute(int minute) {
-        this.minute = minute;
+    public synchronized void setMinute(int minute) {
+        shift((minute - getMinute()) * SimTime.MINUTE);
     }
 
     public int getSecond() {
-        return second;
+        return SimTime.secondOfMinute(now);
+    }
+
+    public synchronized void setSecond(int second) {
+        shift(second - getSecond());
     }
 
-    public void setSecond(int second) {
-        this.second = second;
+    private void shift(long seconds) {
+        start += seconds;
+        now += seconds;
     }
 
     public double getGrain() {
@@ -60,41 +79,209 @@ public class Timer {
         this.grain = grain;
     }
 
-    public void tick() // how the clock works
+    /**
+     * Returns the current simulated time, see {@link SimTime}. Events are scheduled
+     * against this value
+     *
+     * @return the simulated seconds since midnight of the first day
+     */
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Returns the seconds since midnight of the current simulated day
+     *
+     * @return the time of day in seconds
+     */
+    public int getSecondOfDay() {
+        return SimTime.secondOfDay(now);
+    }
+
+    /**
+     * Returns the simulated seconds since this timer was created. Unlike the
+     * hour/minute/second fields this value never wraps around at midnight
+     *
+     * @return the elapsed simulated seconds
+     */
+    public long getElapsedSeconds() {
+        return now - start;
+    }
+
+    /**
+     * Ends the simulation &seconds; simulated seconds after the timer was created. A
+     * {@link EventType#HORIZON} event is scheduled then, events scheduled at the same
+     * time before it are still handled
+     *
+     * @param seconds the simulated seconds of the run
+     */
+    public synchronized void setHorizon(long seconds) {
+        end = start + seconds;
+        schedule(end, EventType.HORIZON, new EventHandler() {
+            public void handle(SimEvent event) {
+                ended = true;
+            }
+        });
+    }
+
+    /**
+     * @return true once the clock has reached the horizon, see {@link #setHorizon(long)}
+     */
+    public boolean hasEnded() {
+        return ended;
+    }
+
+    /**
+     * Moves the clock forward by one grain. The simulated time is in whole seconds, so
+     * the fractions of the grain are carried over to the next ticks and the clock keeps
+     * its rate for any grain, e.g. a grain of 0.25 advances one second every 4 ticks
+     */
+    public synchronized void tick() // how the clock works
     {
-        second += grain;
+        fraction += grain;
+        long seconds = (long) fraction;
+        fraction -= seconds;
+        advance(seconds);
+    }
+
+    /**
+     * Moves the clock forward by &seconds; simulated seconds, at most up to the horizon
+     *
+     * @param seconds the seconds to advance
+     */
+    public synchronized void advance(long seconds) {
+        now = Math.min(end, now + seconds);
+    }
+
+    /**
+     * Schedules an event for the simulated second &time;
+     *
+     * @param time    the simulated time, see {@link #now()}
+     * @param type    EventType see {@link EventType}
+     * @param handler the handler called when the clock reaches &time;
+     * @return the scheduled event
+     */
+    public synchronized SimEvent schedule(long time, EventType type, EventHandler handler) {
+        SimEvent event = new SimEvent(time, seq++, type, handler);
+        events.add(event);
+        return event;
+    }
+
+    /**
+     * Restarts &behaviour; once the simulated clock reaches &second;. This lets
+     * behaviours block until a point in simulated time instead of polling the clock.
+     * The behaviour counts as busy until it calls {@link #acknowledge(Object)}
+     *
+     * @param second    the simulated time, see {@link #now()}
+     * @param type      EventType see {@link EventType}
+     * @param behaviour the behaviour to restart
+     */
+    public void wakeAt(long second, EventType type, final Behaviour behaviour) {
+        schedule(second, type, new EventHandler() {
+            public void handle(SimEvent event) {
+                hold(behaviour);
+                behaviour.restart();
+            }
+        });
+    }
+
+    /**
+     * Marks &owner; as busy, the clock does not jump ahead until it is acknowledged.
+     * Agents use it while they are about to schedule events of their own
+     *
+     * @param owner the behaviour or agent that is busy
+     */
+    public synchronized void hold(Object owner) {
+        busy.add(owner);
+    }
+
+    /**
+     * Signals that &owner; has handled the events it was woken up for
+     *
+     * @param owner the behaviour or agent that was busy
+     */
+    public synchronized void acknowledge(Object owner) {
+        busy.remove(owner);
+    }
 
-        if (second >= 60.0) // Method for outputting seconds
-        {
-            minute += second / 60;
-            second %= 60;
+    /**
+     * Returns true when every behaviour woken up by an event has acknowledged it, the
+     * clock must not jump ahead before that
+     *
+     * @return whether all events were handled
+     */
+    public synchronized boolean isQuiescent() {
+        return busy.isEmpty();
+    }
+
+    /**
+     * Restarts every behaviour that did not acknowledge its event yet and forgets the
+     * other holds. Used when the clock has been stuck for too long, e.g. because a
+     * restart was lost or an agent died while holding the clock
+     */
+    public void nudge() {
+        ArrayList<Object> stuck;
+        synchronized (this) {
+            stuck = new ArrayList<>(busy);
+            busy.clear();
         }
+        for (Object owner : stuck) {
+            if (owner instanceof Behaviour) {
+                hold(owner);
+                ((Behaviour) owner).restart();
+            }
+        }
+    }
 
-        if (minute > 59) // Method for outputting minutes
-        {
-            hour += minute / 60;
-            minute %= 60;
+    /**
+     * Handles every event that is due
+     */
+    public void wakeUp() {
+        SimEvent event;
+        while ((event = nextDue()) != null) {
+            event.handler.handle(event);
         }
+    }
 
-        if (hour >= 24) // Method for outputting hours
-        {
-            date += 1;
-            hour = 0;
+    /**
+     * Jumps the clock to the next scheduled event and handles every event due at that time
+     *
+     * @return false when there are no events left or the horizon has been reached
+     */
+    public boolean advanceToNextEvent() {
+        long next;
+        synchronized (this) {
+            SimEvent event = events.peek();
+            if (event == null || ended)
+                return false;
+            next = event.time;
+            if (next > now)
+                advance(next - now);
         }
+        wakeUp();
+        return true;
+    }
+
+    /**
+     * Returns the number of events of type &type; handled so far
+     *
+     * @param type EventType see {@link EventType}
+     * @return the count
+     */
+    public synchronized long getFired(EventType type) {
+        return fired[type.ordinal()];
     }
 
-    public Date getDate() {
-        Calendar time = Calendar.getInstance();
-        time.set(Calendar.DATE, date);
-        time.set(Calendar.HOUR, hour);
-        time.set(Calendar.MINUTE, minute);
-        time.set(Calendar.SECOND, second);
-        return time.getTime();
+    private synchronized SimEvent nextDue() {
+        SimEvent event = events.peek();
+        if (event == null || event.time > now || ended)
+            return null;
+        fired[event.type.ordinal()]++;
+        return events.poll();
     }
 
     public String toString() //Output time
     {
-        return String.format("%02d:%02d:%02d", hour, minute, second);
+        return SimTime.format(now);
     }
 }
-
@@ -0,0 +1,139 @@
+package utils.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Replays recorded calls from a trace file. The file is read one record at a time,
+ * so traces of any size can be replayed without loading them into memory.
+ * <p>
+ * Two formats are supported:
+ * <ul>
+ * <li>CSV, one call per line: time,origin,destination. The time is either a number
+ * of seconds (e.g. a Unix timestamp) or a time of day HH:mm:ss; times of day that go
+ * back are taken to be on the following day. Empty lines, lines starting with # and
+ * a header line are skipped</li>
+ * <li>binary, used for files ending in .bin: a sequence of records of a long time in
+ * seconds followed by the int origin and destination nodes, see {@link #write(DataOutput, long, int, int)}</li>
+ * </ul>
+ * The first call of the trace is replayed at the start time of the simulation and the
+ * time between calls is multiplied by &timeScale;, e.g. 0.5 replays the trace with
+ * twice the call rate
+ */
+public class TraceCallSource implements CallSource {
+    private final String path;
+    private final long start;
+    private final double timeScale;
+    private final BufferedReader csv;
+    private final DataInputStream binary;
+    private long first = -1;
+    private long previous = -1;
+    private long day = 0;
+    private long line = 0;
+
+    /**
+     * @param path      the trace file
+     * @param start     the simulated time the first call is replayed at, see {@link SimTime}
+     * @param timeScale the simulated seconds per second of the trace
+     */
+    public TraceCallSource(String path, long start, double timeScale) {
+        this.path = path;
+        this.start = start;
+        this.timeScale = timeScale;
+        try {
+            if (path.endsWith(".bin")) {
+                binary = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16));
+                csv = null;
+            } else {
+                csv = new BufferedReader(new FileReader(path), 1 << 16);
+                binary = null;
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not open " + path, e);
+        }
+    }
+
+    /**
+     * Writes a call in the binary trace format
+     *
+     * @param out         the binary trace
+     * @param time        the time of the call in seconds
+     * @param origin      the node the passenger calls from
+     * @param destination the node the passenger wants to go to
+     * @throws IOException when the record cannot be written
+     */
+    public static void write(DataOutput out, long time, int origin, int destination) throws IOException {
+        out.writeLong(time);
+        out.writeInt(origin);
+        out.writeInt(destination);
+    }
+
+    public Call next() {
+        try {
+            return binary != null ? readBinary(binary) : readCsv();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Invalid call trace " + path + " at record " + line, e);
+        }
+    }
+
+    private Call readBinary(DataInput in) throws IOException {
+        long time;
+        try {
+            time = in.readLong();
+        } catch (EOFException e) {
+            return null;
+        }
+        line++;
+        return call(time, in.readInt(), in.readInt());
+    }
+
+    private Call readCsv() throws IOException {
+        String text;
+        while ((text = csv.readLine()) != null) {
+            line++;
+            text = text.trim();
+            if (text.isEmpty() || text.startsWith("#"))
+                continue;
+            String[] fields = text.split(",");
+            String time = fields[0].trim();
+            if (line == 1 && !time.isEmpty() && !Character.isDigit(time.charAt(0)))
+                continue; // Header
+            if (fields.length < 3)
+                throw new IllegalArgumentException("Expected time,origin,destination but got " + text);
+            long seconds;
+            if (time.indexOf(':') >= 0) {
+                seconds = SimTime.parse(time) + day * SimTime.DAY;
+                if (seconds < previous) {
+                    day++;
+                    seconds += SimTime.DAY;
+                }
+            } else {
+                seconds = Long.parseLong(time);
+            }
+            return call(seconds, Integer.parseInt(fields[1].trim()), Integer.parseInt(fields[2].trim()));
+        }
+        return null;
+    }
+
+    private Call call(long time, int origin, int destination) {
+        if (first < 0)
+            first = time;
+        previous = Math.max(previous, time);
+        // Out of order records are replayed right after the previous one
+        return new Call(start + (long) ((previous - first) * timeScale), origin, destination);
+    }
+
+    public void close() throws IOException {
+        if (binary != null)
+            binary.close();
+        else
+            csv.close();
+    }
+}
@@ -0,0 +1,174 @@
+package utils.stats;
+
+import java.io.Serializable;
+
+/**
+ * High dynamic range histogram of non-negative whole values, e.g. waits in simulated
+ * seconds or auction durations in milliseconds. The buckets are log-linear: every power
+ * of two is split into 2^(&precision; - 1) buckets of equal width, so the values are
+ * kept with a relative error below 2^(1 - &precision;) (under 1% with the default of 8
+ * bits) however many are recorded. The memory is fixed by the largest value to keep,
+ * larger values are counted in the last bucket.
+ * <p>
+ * Histograms with the same layout can be merged, e.g. to get the percentiles over all
+ * replications. The methods are not synchronized
+ */
+public class Histogram implements Serializable {
+    private final int precision;
+    private final long highest;
+    private final int subBuckets;
+    private final int half;
+    private final long[] counts;
+    private long count = 0;
+    private double sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    /**
+     * A histogram of values up to &highest; with 8 bits of precision
+     *
+     * @param highest the largest value to keep
+     */
+    public Histogram(long highest) {
+        this(highest, 8);
+    }
+
+    /**
+     * @param highest   the largest value to keep
+     * @param precision the bits of precision, from 2 to 16
+     */
+    public Histogram(long highest, int precision) {
+        if (precision < 2 || precision > 16)
+            throw new IllegalArgumentException("The precision must be from 2 to 16 bits");
+        if (highest < 1)
+            throw new IllegalArgumentException("The highest value must be positive");
+        this.precision = precision;
+        this.highest = highest;
+        this.subBuckets = 1 << precision;
+        this.half = subBuckets >> 1;
+        this.counts = new long[index(highest) + 1];
+    }
+
+    private int index(long value) {
+        if (value < subBuckets)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (precision - 1);
+        return subBuckets + (shift - 1) * half + (int) ((value >>> shift) - half);
+    }
+
+    /**
+     * Returns the largest value that falls in bucket &index;
+     */
+    private long highestIn(int index) {
+        if (index < subBuckets)
+            return index;
+        int shift = (index - subBuckets) / half + 1;
+        long lowest = (long) ((index - subBuckets) % half + half) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Records a value
+     *
+     * @param value the value, at least 0
+     */
+    public void record(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("Negative value " + value);
+        counts[index(Math.min(value, highest))]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the values of &other; to this histogram
+     *
+     * @param other a histogram with the same highest value and precision
+     */
+    public void merge(Histogram other) {
+        if (other.precision != precision || other.highest != highest)
+            throw new IllegalArgumentException("Histograms of different layouts cannot be merged");
+        for (int i = 0; i < counts.length; i++)
+            counts[i] += other.counts[i];
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return a copy of this histogram
+     */
+    public Histogram copy() {
+        Histogram copy = new Histogram(highest, precision);
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the exact mean of the values, NaN when there are none
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the value &percentile; percent of the values are at or below, to within
+     * the precision of the histogram
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the value, NaN when there are none
+     */
+    public double percentile(double percentile) {
+        if (count == 0)
+            return Double.NaN;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.max(min, Math.min(highestIn(i), max));
+        }
+        return max;
+    }
+
+    /**
+     * Returns the fraction of the values at or below &value;, to within the precision
+     * of the histogram
+     *
+     * @param value the value
+     * @return the fraction, NaN when there are none
+     */
+    public double fractionAtOrBelow(long value) {
+        if (count == 0)
+            return Double.NaN;
+        if (value < 0)
+            return 0;
+        if (value >= max)
+            return 1;
+        long below = 0;
+        for (int i = 0; i <= index(value); i++)
+            below += counts[i];
+        return (double) below / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.1f p50=%.0f p95=%.0f p99=%.0f max=%d", count, getMean(),
+                percentile(50), percentile(95), percentile(99), max);
+    }
+}
@@ -0,0 +1,56 @@
+package utils.stats;
+
+/**
+ * Marginal standard error rule (MSER) for the warm-up period of a simulation run. The
+ * observations are grouped into batches of &batch; (MSER-5 uses batches of 5) and the
+ * truncation point is the number of leading batches whose removal minimizes the
+ * squared standard error of the mean of the remaining batches, searched over the first
+ * half of the run
+ */
+public class Mser {
+
+    private Mser() {
+    }
+
+    /**
+     * Returns the number of leading observations to drop as warm-up
+     *
+     * @param series the observations in time order
+     * @param size   the number of observations of &series; to use
+     * @param batch  the number of observations per batch
+     * @return the number of observations to drop, a multiple of &batch;
+     */
+    public static int truncation(double[] series, int size, int batch) {
+        if (batch < 1)
+            throw new IllegalArgumentException("The batch size must be positive");
+        int k = size / batch;
+        if (k < 2)
+            return 0;
+        double[] means = new double[k];
+        for (int j = 0; j < k; j++) {
+            double sum = 0;
+            for (int i = j * batch; i < (j + 1) * batch; i++)
+                sum += series[i];
+            means[j] = sum / batch;
+        }
+        // Sums and sums of squares of the batch means from batch d to the end
+        double[] sum = new double[k + 1];
+        double[] squares = new double[k + 1];
+        for (int j = k - 1; j >= 0; j--) {
+            sum[j] = sum[j + 1] + means[j];
+            squares[j] = squares[j + 1] + means[j] * means[j];
+        }
+        int best = 0;
+        double bestStatistic = Double.POSITIVE_INFINITY;
+        for (int d = 0; d <= k / 2; d++) {
+            int n = k - d;
+            double deviations = squares[d] - sum[d] * sum[d] / n;
+            double statistic = Math.max(0, deviations) / ((double) n * n);
+            if (statistic < bestStatistic) {
+                bestStatistic = statistic;
+                best = d;
+            }
+        }
+        return best * batch;
+    }
+}
@@ -0,0 +1,78 @@
+package utils.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Uniform random sample of at most &capacity; items of a stream of unknown length
+ * (reservoir sampling, algorithm R). Every item offered so far is in the sample with the
+ * same probability, and the memory stays the same however long the stream gets
+ *
+ * @param <T> the type of the items
+ */
+public class Reservoir<T> {
+    private final int capacity;
+    private final Random random;
+    private final ArrayList<T> items;
+    private long seen = 0;
+
+    /**
+     * @param capacity the largest number of items kept
+     * @param random   the random numbers that pick the items
+     */
+    public Reservoir(int capacity, Random random) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity must be positive");
+        this.capacity = capacity;
+        this.random = random;
+        this.items = new ArrayList<>(Math.min(capacity, 1024));
+    }
+
+    /**
+     * Offers the next item of the stream
+     *
+     * @param item the item
+     */
+    public void add(T item) {
+        seen++;
+        if (items.size() < capacity) {
+            items.add(item);
+        } else {
+            long slot = (long) (random.nextDouble() * seen);
+            if (slot < capacity)
+                items.set((int) slot, item);
+        }
+    }
+
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    /**
+     * @return the number of items in the sample
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @return the number of items offered
+     */
+    public long getSeen() {
+        return seen;
+    }
+
+    /**
+     * @return the sample, read-only
+     */
+    public List<T> getSample() {
+        return Collections.unmodifiableList(items);
+    }
+
+    public void clear() {
+        items.clear();
+        seen = 0;
+    }
+}
@@ -0,0 +1,77 @@
+package utils.stats;
+
+/**
+ * Mean and variance of a stream of observations, updated one observation at a time
+ * with Welford's algorithm so no observation has to be kept
+ */
+public class RunningStats {
+    // Two-sided 95% quantiles of Student's t distribution for 1 to 30 degrees of freedom
+    private static final double[] T95 = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+    private long count = 0;
+    private double mean = 0;
+    private double m2 = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds an observation
+     *
+     * @param x the observation
+     */
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the sample variance, NaN with fewer than two observations
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the half width of the 95% confidence interval of the mean, assuming the
+     * observations are independent and roughly normal
+     *
+     * @return the half width, NaN with fewer than two observations
+     */
+    public double getHalfWidth95() {
+        if (count < 2)
+            return Double.NaN;
+        long df = count - 1;
+        double t = df <= T95.length ? T95[(int) df - 1] : 1.960;
+        return t * getStdDev() / Math.sqrt(count);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f +/- %.2f (n=%d)", getMean(), getHalfWidth95(), count);
+    }
+}
@@ -0,0 +1,63 @@
+package utils.stats;
+
+/**
+ * Statistics of the trips of one simulation run, recorded by the taxis as the trips
+ * happen. The waits and the trip times are kept in {@link Histogram}s, so the memory
+ * does not grow with the number of trips. The taxis run on threads of their own, so the
+ * methods are synchronized
+ */
+public class TripStats {
+    /**
+     * The largest wait or trip time kept exactly, in simulated seconds
+     */
+    public static final long HIGHEST = 30L * 24 * 60 * 60;
+
+    private final Histogram waits = new Histogram(HIGHEST);
+    private final Histogram trips = new Histogram(HIGHEST);
+
+    /**
+     * Records a pickup
+     *
+     * @param wait the simulated seconds from the call to the pickup
+     */
+    public synchronized void recordWait(long wait) {
+        waits.record(Math.max(0, wait));
+    }
+
+    /**
+     * Records a dropoff
+     *
+     * @param trip the simulated seconds from the pickup to the dropoff
+     */
+    public synchronized void recordTrip(long trip) {
+        trips.record(Math.max(0, trip));
+    }
+
+    /**
+     * @return the number of passengers picked up
+     */
+    public synchronized long getPickups() {
+        return waits.getCount();
+    }
+
+    /**
+     * @return the mean simulated seconds from a call to its pickup, NaN before the first pickup
+     */
+    public synchronized double getMeanWait() {
+        return waits.getMean();
+    }
+
+    /**
+     * @return a copy of the histogram of the waits
+     */
+    public synchronized Histogram getWaits() {
+        return waits.copy();
+    }
+
+    /**
+     * @return a copy of the histogram of the trip times
+     */
+    public synchronized Histogram getTrips() {
+        return trips.copy();
+    }
+}
@@ -0,0 +1,44 @@
+package utils.trace;
+
+/**
+ * The kinds of records of a binary trace and their columns. Every column has a fixed
+ * width: 'L' is a long, 'I' an int and 'D' a double. Times are simulated times, see
+ * {@link utils.simulation.SimTime}, taxis are the numbers the coordinator gave them
+ */
+public enum RecordType {
+    CALL("time:L passenger:I origin:I destination:I"),
+    AWARD("time:L passenger:I taxi:I price:D company:D latency:L round:I"), // once the taxi confirmed it
+    DROPPED("time:L passenger:I"),
+    PICKUP("time:L passenger:I taxi:I wait:L"),
+    DROPOFF("time:L passenger:I taxi:I node:I");
+
+    public final String[] columns;
+    public final char[] types;
+    public final int width;
+
+    RecordType(String schema) {
+        String[] fields = schema.split(" ");
+        columns = new String[fields.length];
+        types = new char[fields.length];
+        int bytes = 0;
+        for (int i = 0; i < fields.length; i++) {
+            columns[i] = fields[i].substring(0, fields[i].indexOf(':'));
+            types[i] = fields[i].charAt(fields[i].length() - 1);
+            bytes += types[i] == 'I' ? 4 : 8;
+        }
+        width = bytes;
+    }
+
+    /**
+     * Returns the number of the column &name;
+     *
+     * @param name the name of the column
+     * @return the number of the column
+     */
+    public int column(String name) {
+        for (int i = 0; i < columns.length; i++)
+            if (columns[i].equals(name))
+                return i;
+        throw new IllegalArgumentException(this + " has no column " + name);
+    }
+}
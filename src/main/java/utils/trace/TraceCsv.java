@@ -0,0 +1,67 @@
+package utils.trace;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Exports the records of one type of a binary trace as CSV, one line per record with
+ * a header line of the column names
+ */
+public class TraceCsv {
+
+    private TraceCsv() {
+    }
+
+    /**
+     * Writes the records of &type; in the trace &path; to &out;
+     *
+     * @param path the trace file
+     * @param type the type of the records
+     * @param out  the CSV output
+     * @return the number of records written
+     * @throws IOException when the CSV cannot be written
+     */
+    public static long export(String path, RecordType type, Writer out) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int c = 0; c < type.columns.length; c++)
+            line.append(c == 0 ? "" : ",").append(type.columns[c]);
+        out.write(line.append('\n').toString());
+        long records = 0;
+        try (TraceReader reader = new TraceReader(path)) {
+            TraceTable block;
+            while ((block = reader.next()) != null) {
+                if (block.type != type)
+                    continue;
+                for (int r = 0; r < block.size(); r++) {
+                    line.setLength(0);
+                    for (int c = 0; c < type.columns.length; c++)
+                        line.append(c == 0 ? "" : ",").append(block.format(c, r));
+                    out.write(line.append('\n').toString());
+                }
+                records += block.size();
+            }
+        }
+        out.flush();
+        return records;
+    }
+
+    /**
+     * Exports a trace to CSV
+     *
+     * @param args the trace file, the record type and the CSV file
+     * @throws IOException when the CSV cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: TraceCsv <trace> <CALL|AWARD|DROPPED|PICKUP|DROPOFF> <csv>");
+            return;
+        }
+        RecordType type = RecordType.valueOf(args[1].toUpperCase());
+        try (Writer out = new BufferedWriter(new FileWriter(args[2]), 1 << 16)) {
+            long records = export(args[0], type, out);
+            System.out.println(records + " " + type + " records written to " + args[2]);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package utils.trace;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a trace written by {@link TraceWriter} block by block. A block is decoded a
+ * column at a time with bulk copies, compressed blocks are inflated first
+ */
+public class TraceReader implements Closeable {
+    private final String path;
+    private final FileChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(TraceWriter.HEADER).order(ByteOrder.LITTLE_ENDIAN);
+    private final Inflater inflater = new Inflater();
+    private ByteBuffer body = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer inflated = ByteBuffer.allocate(1 << 16);
+
+    /**
+     * @param path the trace file
+     */
+    public TraceReader(String path) {
+        this.path = path;
+        try {
+            channel = new FileInputStream(path).getChannel();
+            ByteBuffer start = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            if (!read(start) || start.getLong() != TraceWriter.MAGIC)
+                throw new IllegalArgumentException(path + " is not a trace");
+            int version = start.getInt();
+            if (version != TraceWriter.VERSION)
+                throw new IllegalArgumentException(path + " has unsupported trace version " + version);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not open the trace " + path, e);
+        }
+    }
+
+    /**
+     * Reads all the records of &type; in the trace &path;
+     *
+     * @param path the trace file
+     * @param type the type of the records
+     * @return the records in the order they were written
+     */
+    public static TraceTable readAll(String path, RecordType type) {
+        TraceTable table = new TraceTable(type, TraceWriter.BLOCK_ROWS);
+        try (TraceReader reader = new TraceReader(path)) {
+            TraceTable block;
+            while ((block = reader.next()) != null)
+                if (block.type == type)
+                    table.addAll(block);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the trace " + path, e);
+        }
+        return table;
+    }
+
+    /**
+     * Reads the next block of the trace
+     *
+     * @return the records of the block, null at the end of the trace
+     */
+    public TraceTable next() {
+        try {
+            header.clear();
+            if (!read(header))
+                return null;
+            RecordType type = RecordType.values()[header.get()];
+            byte flags = header.get();
+            int rows = header.getInt();
+            int length = header.getInt();
+            if (body.capacity() < length)
+                body = ByteBuffer.allocate(length);
+            body.clear().limit(length);
+            if (!read(body))
+                throw new IllegalStateException("Truncated block in " + path);
+
+            ByteBuffer data = body;
+            if ((flags & TraceWriter.COMPRESSED) != 0) {
+                int size = rows * type.width;
+                if (inflated.capacity() < size)
+                    inflated = ByteBuffer.allocate(size);
+                inflater.reset();
+                inflater.setInput(body.array(), 0, length);
+                int done = 0;
+                while (done < size && !inflater.finished())
+                    done += inflater.inflate(inflated.array(), done, size - done);
+                inflated.clear().limit(size);
+                data = inflated;
+            }
+            data.order(ByteOrder.LITTLE_ENDIAN);
+
+            long[][] columns = new long[type.columns.length][rows];
+            for (int c = 0; c < columns.length; c++) {
+                long[] column = columns[c];
+                if (type.types[c] == 'I') {
+                    for (int r = 0; r < rows; r++)
+                        column[r] = data.getInt();
+                } else {
+                    LongBuffer longs = data.asLongBuffer();
+                    longs.get(column);
+                    data.position(data.position() + 8 * rows);
+                }
+            }
+            return new TraceTable(type, columns, rows);
+        } catch (IOException | DataFormatException e) {
+            throw new IllegalStateException("Could not read the trace " + path, e);
+        }
+    }
+
+    private boolean read(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (buffer.position() == 0)
+                    return false;
+                throw new IllegalStateException("Truncated trace " + path);
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+}
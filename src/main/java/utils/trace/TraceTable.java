@@ -0,0 +1,74 @@
+package utils.trace;
+
+import java.util.Arrays;
+
+/**
+ * Records of one {@link RecordType} read from a trace, stored by column. Int columns
+ * are widened to long and double columns hold the bits of the doubles, use the getters
+ * to read them
+ */
+public class TraceTable {
+    public final RecordType type;
+    private long[][] columns;
+    private int size;
+
+    /**
+     * @param type     the type of the records
+     * @param capacity the number of records the table can hold before it grows
+     */
+    public TraceTable(RecordType type, int capacity) {
+        this.type = type;
+        this.columns = new long[type.columns.length][Math.max(1, capacity)];
+    }
+
+    TraceTable(RecordType type, long[][] columns, int size) {
+        this.type = type;
+        this.columns = columns;
+        this.size = size;
+    }
+
+    /**
+     * Appends the records of &other;, a table of the same type
+     *
+     * @param other the records to append
+     */
+    public void addAll(TraceTable other) {
+        if (other.type != type)
+            throw new IllegalArgumentException("Cannot add " + other.type + " records to " + type + " records");
+        if (size + other.size > columns[0].length) {
+            int capacity = Math.max(2 * columns[0].length, size + other.size);
+            for (int c = 0; c < columns.length; c++)
+                columns[c] = Arrays.copyOf(columns[c], capacity);
+        }
+        for (int c = 0; c < columns.length; c++)
+            System.arraycopy(other.columns[c], 0, columns[c], size, other.size);
+        size += other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getLong(int column, int row) {
+        return columns[column][row];
+    }
+
+    public int getInt(int column, int row) {
+        return (int) columns[column][row];
+    }
+
+    public double getDouble(int column, int row) {
+        return Double.longBitsToDouble(columns[column][row]);
+    }
+
+    /**
+     * Returns the value of a cell as text, formatted by the type of its column
+     *
+     * @param column the number of the column
+     * @param row    the number of the row
+     * @return the value
+     */
+    public String format(int column, int row) {
+        return type.types[column] == 'D' ? Double.toString(getDouble(column, row)) : Long.toString(getLong(column, row));
+    }
+}
@@ -0,0 +1,297 @@
+package utils.trace;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the trips and auctions of a simulation run to a binary trace. The records of
+ * each {@link RecordType} are collected in memory, one array per column, and written as
+ * a block once &BLOCK_ROWS; of them are collected. Recording a record only stores its
+ * fields in the arrays.
+ * <p>
+ * A full block is handed to a background thread that encodes, deflates and writes it,
+ * and the agent carries on with a spare block, so no agent thread compresses or does
+ * I/O. Every type has &SPARE_BLOCKS; spare blocks; when the writer falls that far behind
+ * the agents wait for it, so no record is lost.
+ * <p>
+ * The file starts with the magic number {@link #MAGIC} and the version. Every block is
+ * a header (byte type, byte flags, int rows, int payload length) followed by the
+ * payload: the columns of the block one after the other, little-endian. With
+ * compression the payload is deflated. See {@link TraceReader} for reading a trace back
+ */
+public class TraceWriter implements Closeable {
+    public static final long MAGIC = 0x5441584954524331L; // "TAXITRC1"
+    public static final int VERSION = 1;
+    public static final int BLOCK_ROWS = 4096;
+    static final int HEADER = 10;
+    static final byte COMPRESSED = 1;
+    static final int SPARE_BLOCKS = 3;
+
+    private final FileChannel channel;
+    private final Deflater deflater;
+    private final Block[] blocks = new Block[RecordType.values().length]; // the blocks being filled
+    private final ArrayBlockingQueue<Block> full; // blocks for the writer
+    private final ArrayList<ArrayBlockingQueue<Block>> spare = new ArrayList<>(); // blocks written, by type
+    private final Thread writer;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer payload;
+    private byte[] compressed;
+    private volatile IOException failure;
+    private boolean closed = false;
+
+    /**
+     * The columns of up to &BLOCK_ROWS; records of one type
+     */
+    private static class Block {
+        final RecordType type;
+        final long[][] columns;
+        int rows = 0;
+
+        Block(RecordType type) {
+            this.type = type;
+            this.columns = type == null ? null : new long[type.columns.length][BLOCK_ROWS];
+        }
+    }
+
+    private static final Block END = new Block(null);
+
+    /**
+     * @param path     the trace file
+     * @param compress true to deflate the blocks
+     */
+    public TraceWriter(String path, boolean compress) {
+        int widest = 0;
+        RecordType[] types = RecordType.values();
+        full = new ArrayBlockingQueue<>(types.length * (SPARE_BLOCKS + 1) + 1);
+        for (RecordType type : types) {
+            blocks[type.ordinal()] = new Block(type);
+            ArrayBlockingQueue<Block> pool = new ArrayBlockingQueue<>(SPARE_BLOCKS + 1);
+            for (int i = 0; i < SPARE_BLOCKS; i++)
+                pool.add(new Block(type));
+            spare.add(pool);
+            widest = Math.max(widest, type.width);
+        }
+        payload = ByteBuffer.allocate(widest * BLOCK_ROWS).order(ByteOrder.LITTLE_ENDIAN);
+        deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        compressed = compress ? new byte[payload.capacity() + 64] : null;
+        try {
+            channel = new FileOutputStream(path).getChannel();
+            ByteBuffer start = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            start.putLong(MAGIC).putInt(VERSION).flip();
+            write(start);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not create the trace " + path, e);
+        }
+        writer = new Thread(new Runnable() {
+            public void run() {
+                drain();
+            }
+        }, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public synchronized void call(long time, int passenger, int origin, int destination) {
+        long[][] block = row(RecordType.CALL);
+        if (block == null)
+            return;
+        int row = blocks[RecordType.CALL.ordinal()].rows;
+        block[0][row] = time;
+        block[1][row] = passenger;
+        block[2][row] = origin;
+        block[3][row] = destination;
+        added(RecordType.CALL);
+    }
+
+    public synchronized void award(long time, int passenger, int taxi, double price, double company, long latency,
+                                   int round) {
+        long[][] block = row(RecordType.AWARD);
+        if (block == null)
+            return;
+        int row = blocks[RecordType.AWARD.ordinal()].rows;
+        block[0][row] = time;
+        block[1][row] = passenger;
+        block[2][row] = taxi;
+        block[3][row] = Double.doubleToRawLongBits(price);
+        block[4][row] = Double.doubleToRawLongBits(company);
+        block[5][row] = latency;
+        block[6][row] = round;
+        added(RecordType.AWARD);
+    }
+
+    public synchronized void dropped(long time, int passenger) {
+        long[][] block = row(RecordType.DROPPED);
+        if (block == null)
+            return;
+        int row = blocks[RecordType.DROPPED.ordinal()].rows;
+        block[0][row] = time;
+        block[1][row] = passenger;
+        added(RecordType.DROPPED);
+    }
+
+    public synchronized void pickup(long time, int passenger, int taxi, long wait) {
+        long[][] block = row(RecordType.PICKUP);
+        if (block == null)
+            return;
+        int row = blocks[RecordType.PICKUP.ordinal()].rows;
+        block[0][row] = time;
+        block[1][row] = passenger;
+        block[2][row] = taxi;
+        block[3][row] = wait;
+        added(RecordType.PICKUP);
+    }
+
+    public synchronized void dropoff(long time, int passenger, int taxi, int node) {
+        long[][] block = row(RecordType.DROPOFF);
+        if (block == null)
+            return;
+        int row = blocks[RecordType.DROPOFF.ordinal()].rows;
+        block[0][row] = time;
+        block[1][row] = passenger;
+        block[2][row] = taxi;
+        block[3][row] = node;
+        added(RecordType.DROPOFF);
+    }
+
+    private long[][] row(RecordType type) {
+        // Taxis may still finish a trip after the coordinator closed the trace
+        return closed ? null : blocks[type.ordinal()].columns;
+    }
+
+    private void added(RecordType type) {
+        Block block = blocks[type.ordinal()];
+        if (++block.rows == BLOCK_ROWS) {
+            put(full, block);
+            blocks[type.ordinal()] = take(spare.get(type.ordinal()));
+        }
+    }
+
+    /**
+     * Waits for a block of &queue; without giving up on interrupts, the writer always
+     * returns the blocks
+     */
+    private static Block take(ArrayBlockingQueue<Block> queue) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void put(ArrayBlockingQueue<Block> queue, Block block) {
+        // The queues hold every block, so there is always room
+        if (!queue.offer(block))
+            throw new IllegalStateException("Trace block queue is full");
+    }
+
+    /**
+     * Body of the writer thread: writes the full blocks until the trace is closed
+     */
+    private void drain() {
+        while (true) {
+            Block block = take(full);
+            if (block == END)
+                return;
+            if (failure == null) {
+                try {
+                    flush(block);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            block.rows = 0;
+            put(spare.get(block.type.ordinal()), block);
+        }
+    }
+
+    private void flush(Block blk) throws IOException {
+        RecordType type = blk.type;
+        int n = blk.rows;
+        if (n == 0)
+            return;
+        long[][] block = blk.columns;
+        payload.clear();
+        for (int c = 0; c < type.columns.length; c++) {
+            long[] column = block[c];
+            if (type.types[c] == 'I') {
+                for (int r = 0; r < n; r++)
+                    payload.putInt((int) column[r]);
+            } else {
+                payload.asLongBuffer().put(column, 0, n);
+                payload.position(payload.position() + 8 * n);
+            }
+        }
+        payload.flip();
+
+        ByteBuffer body = payload;
+        byte flags = 0;
+        if (deflater != null) {
+            deflater.reset();
+            deflater.setInput(payload.array(), 0, payload.limit());
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length)
+                    compressed = Arrays.copyOf(compressed, 2 * compressed.length);
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            body = ByteBuffer.wrap(compressed, 0, length);
+            flags = COMPRESSED;
+        }
+        header.clear();
+        header.put((byte) type.ordinal()).put(flags).putInt(n).putInt(body.remaining()).flip();
+        write(header);
+        write(body);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Writes the records collected so far, waits for the writer and closes the trace
+     *
+     * @throws IOException when the trace cannot be written
+     */
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        for (Block block : blocks)
+            if (block.rows > 0)
+                put(full, block);
+        put(full, END);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        if (deflater != null)
+            deflater.end();
+        channel.close();
+        if (failure != null)
+            throw failure;
+    }
+}
@@ -1,16 +1,58 @@
+import auction.AuctionMechanismTest;
+import auction.AuctionTest;
+import behaviour.LocationBehaviourTest;
+import city.CityGeneratorTest;
 import city.CityTest;
 import city.PassengerTest;
+import city.RequestCodecTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import utils.agentMethods.TaxiMethodsTest;
+import utils.assignment.HungarianAssignmentTest;
+import utils.log.EventLogTest;
+import utils.metrics.SimulationMetricsTest;
+import utils.misc.ShiftTest;
 import utils.simulation.CallGenTest;
+import utils.simulation.DemandHorizonTest;
+import utils.simulation.DemandScheduleTest;
+import utils.simulation.RandomStreamTest;
+import utils.simulation.SimTimeTest;
+import utils.simulation.SweepDesignTest;
+import utils.simulation.TimerTest;
+import utils.simulation.TraceCallSourceTest;
+import utils.stats.HistogramTest;
+import utils.stats.MserTest;
+import utils.stats.ReservoirTest;
+import utils.trace.TraceTest;
+import utils.stats.RunningStatsTest;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
         CityTest.class,
         PassengerTest.class,
         CallGenTest.class,
-        TaxiMethodsTest.class
+        TaxiMethodsTest.class,
+        AuctionTest.class,
+        AuctionMechanismTest.class,
+        HungarianAssignmentTest.class,
+        ShiftTest.class,
+        SimTimeTest.class,
+        DemandScheduleTest.class,
+        TraceCallSourceTest.class,
+        DemandHorizonTest.class,
+        RandomStreamTest.class,
+        RunningStatsTest.class,
+        SweepDesignTest.class,
+        MserTest.class,
+        EventLogTest.class,
+        TraceTest.class,
+        SimulationMetricsTest.class,
+        HistogramTest.class,
+        ReservoirTest.class,
+        RequestCodecTest.class,
+        CityGeneratorTest.class,
+        TimerTest.class,
+        LocationBehaviourTest.class
 })
 public class JunitTestSuite {
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package auction;
+
+import city.Bid;
+import city.DropoffPoint;
+import city.Intersection;
+import city.Request;
+import org.junit.Before;
+import org.junit.Test;
+import utils.simulation.SimulationConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AuctionMechanismTest {
+    private SimulationConfig config;
+    private List<Request> bids;
+
+    private static Request bid(double payOff, double company) {
+        Request r = new Request(new Intersection(), new DropoffPoint(10), 0);
+        r.bid = new Bid();
+        r.bid.payOff = payOff;
+        r.bid.company = company;
+        return r;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        config = new SimulationConfig();
+        bids = Arrays.asList(bid(120, 200), bid(-5, 10), bid(100, 150), bid(160, 260));
+    }
+
+    @Test
+    public void firstPrice() throws Exception {
+        Award award = AuctionMechanisms.create("first-price", config).award(bids);
+        assertSame(bids.get(2), award.winner);
+        assertEquals(0.3 * 50, award.company, 1e-9);
+        assertEquals(100 - 0.3 * 50, award.payOff, 1e-9);
+        System.out.println("@Test - firstPrice");
+    }
+
+    @Test
+    public void vickrey() throws Exception {
+        Award award = AuctionMechanisms.create("vickrey", config).award(bids);
+        assertSame(bids.get(2), award.winner);
+        assertEquals(0.3 * 80, award.company, 1e-9);
+        assertEquals(120 - 0.3 * 80, award.payOff, 1e-9);
+        // The bid vector is left untouched
+        assertEquals(100, bids.get(2).bid.payOff, 0.0);
+        System.out.println("@Test - vickrey");
+    }
+
+    @Test
+    public void reservePrice() throws Exception {
+        config.reservePrice = 90;
+        assertNull(AuctionMechanisms.create("reserve-vickrey", config).award(bids));
+        config.reservePrice = 130;
+        Award award = AuctionMechanisms.create("reserve-vickrey", config).award(bids);
+        assertEquals(120 - 0.3 * 80, award.payOff, 1e-9);
+        System.out.println("@Test - reservePrice");
+    }
+
+    @Test
+    public void comparison() throws Exception {
+        config.profitSharing = "commission";
+        config.companyShare = 0.1;
+        MechanismComparison comparison = new MechanismComparison(Arrays.asList(
+                AuctionMechanisms.create("first-price", config), AuctionMechanisms.create("vickrey", config)));
+        comparison.evaluate(bids);
+        comparison.evaluate(new ArrayList<Request>());
+        assertEquals(1, comparison.getAwards(0));
+        assertEquals(1, comparison.getUnawarded(1));
+        assertEquals(10, comparison.getCompanyPayoff(0), 1e-9);
+        assertEquals(108, comparison.getDriverPayoff(1), 1e-9);
+        System.out.println("@Test - comparison");
+    }
+}
@@ -0,0 +1,50 @@
+package auction;
+
+import city.DropoffPoint;
+import city.Intersection;
+import city.Request;
+import org.junit.Before;
+import org.junit.Test;
+import utils.simulation.SimulationConfig;
+
+import static org.junit.Assert.*;
+
+public class AuctionTest {
+    private SimulationConfig config;
+    private Auction auction;
+
+    @Before
+    public void setUp() throws Exception {
+        config = new SimulationConfig();
+        config.bidDeadline = 30;
+        Request request = new Request(new Intersection(), new DropoffPoint(10), 0);
+        auction = new Auction("cfp0", request, 4, 100, 0, 0);
+    }
+
+    @Test
+    public void closesWhenEveryTaxiReplied() throws Exception {
+        auction.replies = 3;
+        assertFalse(auction.isClosed(config, 100));
+        auction.replies = 4;
+        assertTrue(auction.isClosed(config, 100));
+        System.out.println("@Test - closesWhenEveryTaxiReplied");
+    }
+
+    @Test
+    public void closesOnQuorum() throws Exception {
+        config.bidQuorum = 2;
+        auction.replies = 2;
+        assertTrue(auction.isClosed(config, 100));
+        config.bidQuorum = 10;
+        assertEquals(4, auction.quorum(config));
+        System.out.println("@Test - closesOnQuorum");
+    }
+
+    @Test
+    public void closesOnDeadline() throws Exception {
+        assertFalse(auction.isClosed(config, 129));
+        assertTrue(auction.isClosed(config, 130));
+        assertEquals(30, auction.latency(130));
+        System.out.println("@Test - closesOnDeadline");
+    }
+}
@@ -0,0 +1,41 @@
+package behaviour;
+
+import agents.Taxi;
+import city.City;
+import city.DropoffPoint;
+import city.Intersection;
+import city.Request;
+import org.junit.Test;
+import utils.simulation.Timer;
+import utils.stats.TripStats;
+
+import static org.junit.Assert.*;
+
+public class LocationBehaviourTest {
+
+    @Test
+    public void pickupOnTheDropoffTick() throws Exception {
+        City vCity = new City();
+        Intersection origin = vCity.intersections.get(0);
+        DropoffPoint here = new DropoffPoint(origin.index);
+        Taxi taxi = new Taxi();
+        taxi.vCity = vCity;
+        taxi.currentLocation = here;
+        taxi.trips = new TripStats();
+        taxi.confirmed_request = new Request(origin, here, 7);
+        taxi.confirmed_request.callTime = 1000;
+        Timer timer = new Timer(1000, 1);
+
+        // A zero-length trip: the pickup and the dropoff are due at once, and the
+        // clock caught up a minute before the taxi woke up
+        LocationBehaviour trip = new LocationBehaviour(here, here, taxi, timer);
+        timer.advance(60);
+        trip.action();
+
+        assertTrue(trip.done());
+        assertEquals(1, taxi.trips.getPickups());
+        assertEquals(60, taxi.trips.getMeanWait(), 0.0);
+        assertEquals(1, taxi.trips.getTrips().getCount());
+        System.out.println("@Test - pickupOnTheDropoffTick");
+    }
+}
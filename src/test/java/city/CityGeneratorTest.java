@@ -0,0 +1,56 @@
+package city;
+
+import org.junit.Test;
+import utils.shortestPath.DijkstraUndirectedSP;
+import utils.shortestPath.Edge;
+import utils.shortestPath.EdgeWeightedGraph;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class CityGeneratorTest {
+
+    @Test
+    public void connectedRoadNetwork() throws Exception {
+        CityGenerator generator = new CityGenerator(1234, 5);
+        EdgeWeightedGraph G = generator.graph();
+        assertEquals(1234, G.V());
+        assertEquals(generator.getRoads(), G.E());
+        for (Edge e : G.edges()) {
+            assertTrue(e.weight() >= 1);
+            assertEquals(0.0, e.weight() % City.k, 0.0);
+        }
+
+        City city = generator.city();
+        for (int i = 0; i < 1234; i++)
+            assertEquals(i, city.intersections.get(i).index);
+        assertTrue(city.G.V() > 1234);
+        DijkstraUndirectedSP sp = new DijkstraUndirectedSP(city.G, city.taxiCenter);
+        for (int v = 0; v < city.G.V(); v++)
+            assertTrue(sp.hasPathTo(v));
+        System.out.println("@Test - connectedRoadNetwork");
+    }
+
+    @Test
+    public void textAndBinaryFormats() throws Exception {
+        CityGenerator generator = new CityGenerator(500, 9);
+        File text = File.createTempFile("city-", ".txt");
+        File binary = File.createTempFile("city-", CityGenerator.BINARY_EXTENSION);
+        try {
+            generator.write(text.getPath());
+            generator.write(binary.getPath());
+            City fromText = new City(text.getPath());
+            City fromBinary = new City(binary.getPath());
+            assertEquals(generator.graph().toString(), CityGenerator.readBinary(binary.getPath()).toString());
+            assertEquals(fromText.G.toString(), fromBinary.G.toString());
+            assertEquals(fromText.dropoffPoints.size(), fromBinary.dropoffPoints.size());
+            // The same seed gives the same network
+            assertEquals(generator.graph().toString(), new CityGenerator(500, 9).graph().toString());
+        } finally {
+            text.delete();
+            binary.delete();
+        }
+        System.out.println("@Test - textAndBinaryFormats");
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import utils.simulation.CallGen;
+import utils.simulation.SimTime;
 import utils.io.In;
 import utils.shortestPath.Path;
 import utils.simulation.StdRandom;
@@ -49,7 +50,6 @@ public class CityTest {
         assertNull(vCity.intersections);
         assertNull(vCity.dropoffPoints);
         assertNull(vCity.G);
-        assertTrue(City.pathLookup.isEmpty());
         assertTrue(vCity.totalCalls == 0);
         assertTrue(vCity.totalPassengers == 0);
         System.out.println("@Test - clear");
@@ -58,7 +58,10 @@ public class CityTest {
     @Test
     public void getShortestPaths() throws Exception {
         vCity.getShortestPaths(vCity.G, sourceNode);
-        assertNotNull(City.pathLookup);
+        assertTrue(vCity.G.shortestPaths().containsKey(sourceNode));
+        // Cities on the same network share the paths, the paths of other networks are their own
+        assertTrue(new City(vCity).G.shortestPaths().containsKey(sourceNode));
+        assertFalse(new City().G.shortestPaths().containsKey(sourceNode));
         System.out.println("@Test - getShortestPaths");
     }
 
@@ -114,15 +117,15 @@ public class CityTest {
     @Test
     public void addPassenger() throws Exception {
         vCity.addPassenger(intersection,0);
-        assertNotNull(vCity.passengerArrayList);
-        assertTrue(vCity.passengerArrayList.size() > 0);
+        assertNotNull(vCity.passengers);
+        assertTrue(vCity.passengers.size() > 0);
         System.out.println("@Test - addPassenger");
     }
 
     @Test
     public void setPassengerRoute() throws Exception {
         vCity.addPassenger(intersection,0);
-        Passenger p = vCity.passengerArrayList.get(0);
+        Passenger p = vCity.passengers.get(0);
         vCity.setPassengerRoute(p);
         assertNotNull(p.route);
         System.out.print(p);
@@ -168,7 +171,7 @@ public class CityTest {
 
     @Test
     public void testTimeReading() {
-        System.out.print(City.getFileTime().toString());
+        System.out.print(SimTime.format(City.getFileStartTime()));
         System.out.println("@Test - testTimeReading");
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package city;
 
 import org.junit.*;
+import utils.simulation.RandomStream;
 
 import java.util.Arrays;
 import java.util.List;
@@ -14,7 +15,7 @@ public class PassengerTest {
 
     @Before
     public void setUp() throws Exception {
-        passenger = new Passenger(intersection,0);
+        passenger = new Passenger(intersection,0,Passenger.travelDistance(RandomStream.of(1, "passengers", 0)));
     }
 
     @After
@@ -23,10 +24,12 @@ public class PassengerTest {
     }
 
     @Test
-    public void getTravelDistance() throws Exception {
-        double d = passenger.getTravelDistance();
+    public void travelDistance() throws Exception {
+        double d = passenger.d;
         assertTrue(d > 0);
         assertTrue(Math.abs(d) - (int) d == 0 || Math.abs(d) - (int) d == 0.5);
-        System.out.println("@Test - setTravelDistance");
+        // The same stream gives the same distance
+        assertEquals(d, Passenger.travelDistance(RandomStream.of(1, "passengers", 0)), 0.0);
+        System.out.println("@Test - travelDistance");
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package city;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.*;
+
+public class RequestCodecTest {
+    private final City city = new City();
+
+    @Test
+    public void roundTrip() throws Exception {
+        Request request = new Request(city.intersections.get(7), new DropoffPoint(55), 42);
+        request.callTime = 123456789L;
+        Request cfp = RequestCodec.decode(RequestCodec.encode(request), city);
+        assertSame(city.intersections.get(7), cfp.origin);
+        assertEquals(55, cfp.destination.index);
+        assertEquals(42, cfp.passengerID);
+        assertEquals(123456789L, cfp.callTime);
+        assertNull(cfp.bid);
+
+        request.bid = new Bid();
+        request.bid.payOff = -17.25;
+        request.bid.company = 3.5;
+        byte[] bytes = new byte[RequestCodec.SIZE + 3];
+        RequestCodec.encode(request, bytes, 3);
+        Request proposal = RequestCodec.decode(bytes, 3, city);
+        assertEquals(-17.25, proposal.bid.payOff, 0.0);
+        assertEquals(3.5, proposal.bid.company, 0.0);
+        assertNull(proposal.bidder);
+        System.out.println("@Test - roundTrip");
+    }
+
+    @Test
+    public void rejectsJavaSerialization() throws Exception {
+        Request request = new Request(city.intersections.get(7), new DropoffPoint(55), 42);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(request);
+            out.close();
+            RequestCodec.decode(bytes.toByteArray(), city);
+            fail("Decoded a serialized object");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+        System.out.println("@Test - rejectsJavaSerialization");
+    }
+}
@@ -0,0 +1,41 @@
+package utils.assignment;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HungarianAssignmentTest {
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    @Test
+    public void solveBeatsGreedy() throws Exception {
+        // Greedy in row order takes 1 + 100, the optimum is 2 + 3
+        double[][] cost = {{1, 2}, {3, 100}};
+        HungarianAssignment solver = new HungarianAssignment(cost);
+        int[] assignment = solver.solve(0);
+        assertArrayEquals(new int[]{1, 0}, assignment);
+        assertEquals(5.0, solver.cost(assignment), 0.0);
+        assertTrue(solver.isOptimal());
+        System.out.println("@Test - solveBeatsGreedy");
+    }
+
+    @Test
+    public void solveRectangular() throws Exception {
+        double[][] cost = {{4, 1, 3}, {2, 0, 5}};
+        int[] assignment = new HungarianAssignment(cost).solve(0);
+        assertArrayEquals(new int[]{1, 0}, assignment);
+
+        double[][] transposed = {{4, 2}, {1, 0}, {3, 5}};
+        assignment = new HungarianAssignment(transposed).solve(0);
+        assertArrayEquals(new int[]{1, 0, -1}, assignment);
+        System.out.println("@Test - solveRectangular");
+    }
+
+    @Test
+    public void solveForbiddenPairs() throws Exception {
+        double[][] cost = {{INF, INF}, {1, 7}, {2, INF}};
+        int[] assignment = new HungarianAssignment(cost).solve(0);
+        assertArrayEquals(new int[]{-1, 1, 0}, assignment);
+        System.out.println("@Test - solveForbiddenPairs");
+    }
+}
@@ -0,0 +1,61 @@
+package utils.log;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class EventLogTest {
+
+    @Test
+    public void recordsOfAllThreadsAreWritten() throws Exception {
+        StringWriter out = new StringWriter();
+        // A small buffer makes the producers wait for the writer
+        EventLog log = EventLog.open(out, true, Level.INFO, null, 16);
+        final int threads = 4;
+        final int records = 2000;
+        Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            producers[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < records; i++)
+                        EventLog.log(Level.INFO, Category.AUCTION, 3600, "taxi", "record {a} {b}", thread, i);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers)
+            producer.join();
+        EventLog.close();
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(threads * records, lines.length);
+        assertEquals(threads * records, log.getWritten());
+        HashSet<String> distinct = new HashSet<>();
+        for (String line : lines) {
+            assertTrue(line, line.startsWith("(01:00:00) INFO AUCTION taxi: record "));
+            distinct.add(line);
+        }
+        assertEquals("Every record is written once", threads * records, distinct.size());
+        System.out.println("@Test - recordsOfAllThreadsAreWritten");
+    }
+
+    @Test
+    public void levelsAndCategoriesAreFiltered() throws Exception {
+        StringWriter out = new StringWriter();
+        EventLog.open(out, true, Level.INFO, new Category[]{Category.AWARD}, 64);
+        assertFalse(EventLog.isEnabled(Level.DEBUG, Category.AWARD));
+        assertFalse(EventLog.isEnabled(Level.WARN, Category.TRIP));
+        assertTrue(EventLog.isEnabled(Level.INFO, Category.AWARD));
+        EventLog.log(Level.DEBUG, Category.AWARD, 0, "coord", "hidden");
+        EventLog.log(Level.INFO, Category.TRIP, 0, "coord", "hidden");
+        EventLog.log(Level.INFO, Category.AWARD, -1, "coord", "Bid won by {o} : {x}", 0, 0, 12.5, "smith1");
+        EventLog.close();
+        assertEquals("INFO AWARD coord: Bid won by smith1 : 12.5" + System.lineSeparator(), out.toString());
+        assertFalse(EventLog.isEnabled(Level.WARN, Category.AWARD));
+        System.out.println("@Test - levelsAndCategoriesAreFiltered");
+    }
+}
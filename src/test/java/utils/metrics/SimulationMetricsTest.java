@@ -0,0 +1,60 @@
+package utils.metrics;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class SimulationMetricsTest {
+
+    @Test
+    public void stripedCounterAddsUpEveryThread() throws Exception {
+        final StripedCounter counter = new StripedCounter(4);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < 100000; i++)
+                        counter.increment();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(800000, counter.sum());
+        counter.reset();
+        assertEquals(0, counter.sum());
+        System.out.println("@Test - stripedCounterAddsUpEveryThread");
+    }
+
+    @Test
+    public void exportedOverJmx() throws Exception {
+        SimulationMetrics metrics = SimulationMetrics.get();
+        SimulationMetrics.register();
+        SimulationMetrics.register();
+        metrics.reset();
+        metrics.cfpsSent.add(12);
+        metrics.refused(RefuseReason.BUSY);
+        metrics.refused(RefuseReason.BUSY);
+        metrics.awarded(30, 4);
+        metrics.awarded(10, 8);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(SimulationMetrics.NAME);
+        assertEquals(12L, server.getAttribute(name, "CfpsSent"));
+        assertEquals(2L, server.getAttribute(name, "Awards"));
+        assertEquals(20.0, (Double) server.getAttribute(name, "MeanAuctionSeconds"), 1e-12);
+        assertEquals(8L, server.getAttribute(name, "MaxAuctionMillis"));
+        TabularData refusals = (TabularData) server.getAttribute(name, "Refusals");
+        CompositeData busy = refusals.get(new Object[]{RefuseReason.BUSY.name()});
+        assertEquals(2L, busy.get("value"));
+        metrics.reset();
+        System.out.println("@Test - exportedOverJmx");
+    }
+}
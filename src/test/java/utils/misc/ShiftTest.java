@@ -0,0 +1,41 @@
+package utils.misc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ShiftTest {
+    private static final int HOUR = 3600;
+
+    @Test
+    public void isOnDuty() throws Exception {
+        assertTrue(Shift.TIME_3AM_TO_1PM.isOnDuty(3 * HOUR));
+        assertTrue(Shift.TIME_3AM_TO_1PM.isOnDuty(13 * HOUR));
+        assertFalse(Shift.TIME_3AM_TO_1PM.isOnDuty(13 * HOUR + 1));
+        assertTrue(Shift.TIME_6PM_TO_4AM.isOnDuty(2 * HOUR));
+        assertFalse(Shift.TIME_6PM_TO_4AM.isOnDuty(18 * HOUR));
+        assertTrue(Shift.TIME_6PM_TO_4AM.isOnDuty(18 * HOUR + 1));
+        System.out.println("@Test - isOnDuty");
+    }
+
+    @Test
+    public void secondsToNextChange() throws Exception {
+        assertEquals(HOUR, Shift.TIME_3AM_TO_1PM.secondsToNextChange(2 * HOUR));
+        assertEquals(10 * HOUR + 1, Shift.TIME_3AM_TO_1PM.secondsToNextChange(3 * HOUR));
+        assertEquals(4 * HOUR, Shift.TIME_6PM_TO_4AM.secondsToNextChange(0));
+        assertEquals(1, Shift.TIME_6PM_TO_4AM.secondsToNextChange(18 * HOUR));
+        System.out.println("@Test - secondsToNextChange");
+    }
+
+    @Test
+    public void changesMatchDutyStatus() throws Exception {
+        for (Shift shift : Shift.values()) {
+            for (int s = 0; s < 24 * HOUR; s += 599) {
+                int next = shift.secondsToNextChange(s);
+                assertEquals(shift.isOnDuty(s), shift.isOnDuty(s + next - 1));
+                assertNotEquals(shift.isOnDuty(s), shift.isOnDuty(s + next));
+            }
+        }
+        System.out.println("@Test - changesMatchDutyStatus");
+    }
+}
@@ -0,0 +1,44 @@
+package utils.simulation;
+
+import city.City;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class DemandHorizonTest {
+
+    @Test
+    public void generateIsIndependentOfThreadsAndBlocks() throws Exception {
+        City city = new City();
+        DemandSchedule schedule = DemandSchedule.defaults();
+        long start = SimTime.of(8, 0, 0);
+        long end = start + 3 * SimTime.DAY;
+        DemandHorizon serial = DemandHorizon.generate(city, schedule, start, end, 7, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        DemandHorizon parallel = DemandHorizon.generate(city, schedule, start, end, 7, executor);
+        executor.shutdown();
+        assertEquals(serial.size, parallel.size);
+        for (int i = 0; i < serial.size; i++) {
+            assertEquals(serial.times[i], parallel.times[i]);
+            assertEquals(serial.origins[i], parallel.origins[i]);
+            assertEquals(serial.destinations[i], parallel.destinations[i]);
+            assertEquals(serial.distances[i], parallel.distances[i], 0.0);
+        }
+
+        // Consuming the same horizon in blocks of a day gives the same calls
+        PregeneratedCallSource source = new PregeneratedCallSource(city, schedule, start, SimTime.DAY / 2, 7, 2);
+        for (int i = 0; i < serial.size; i++) {
+            Call call = source.next();
+            assertEquals(serial.times[i], call.time);
+            assertEquals(serial.origins[i], call.origin);
+            assertTrue(i == 0 || call.time >= serial.times[i - 1]);
+            assertTrue(call.origin != city.taxiCenter && call.destination != call.origin);
+        }
+        source.close();
+        System.out.println("@Test - generateIsIndependentOfThreadsAndBlocks");
+    }
+}
@@ -0,0 +1,78 @@
+package utils.simulation;
+
+import city.City;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DemandScheduleTest {
+
+    @Test
+    public void callsPerHour() throws Exception {
+        DemandSchedule schedule = DemandSchedule.load("src/main/resources/demand.txt");
+        assertEquals(1.0, schedule.callsPerHour(SimTime.of(6, 59, 59)), 0.0);
+        assertEquals(3.0, schedule.callsPerHour(SimTime.of(7, 0, 0)), 0.0);
+        assertEquals(2.0, schedule.callsPerHour(SimTime.of(22, 59, 0)), 0.0);
+        assertEquals(1.0, schedule.callsPerHour(SimTime.of(23, 0, 0)), 0.0);
+        assertEquals(3.0, schedule.callsPerHour(6 * SimTime.DAY + SimTime.of(18, 0, 0)), 0.0);
+        assertEquals(3.0, schedule.maxCallsPerHour(), 0.0);
+
+        // Entries of single days, the last one wraps around to the start of the week
+        DemandSchedule weekend = new DemandSchedule(new int[]{5 * 24 * 60, 60}, new double[]{4, 1});
+        assertEquals(4.0, weekend.callsPerHour(0), 0.0);
+        assertEquals(1.0, weekend.callsPerHour(SimTime.HOUR), 0.0);
+        assertEquals(4.0, weekend.callsPerHour(5 * SimTime.DAY), 0.0);
+        System.out.println("@Test - callsPerHour");
+    }
+
+    @Test
+    public void nextArrivalFollowsRate() throws Exception {
+        StdRandom.setSeed(42);
+        DemandSchedule schedule = DemandSchedule.defaults();
+        int days = 300;
+        int rush = 0;
+        int night = 0;
+        double t = 0;
+        while ((t = schedule.nextArrival(t)) < days * SimTime.DAY) {
+            int hour = SimTime.hourOfDay((long) t);
+            if (hour >= 7 && hour < 9)
+                rush++;
+            else if (hour < 7)
+                night++;
+        }
+        // 3 calls per hour for 2 hours and 1 call per hour for 7 hours every day
+        assertEquals(6.0, (double) rush / days, 0.5);
+        assertEquals(7.0, (double) night / days, 0.5);
+        System.out.println("@Test - nextArrivalFollowsRate");
+    }
+
+    @Test
+    public void scaled() throws Exception {
+        DemandSchedule schedule = DemandSchedule.load("src/main/resources/demand.txt");
+        DemandSchedule doubled = schedule.scaled(2);
+        assertEquals(2.0, doubled.callsPerHour(SimTime.of(6, 0, 0)), 0.0);
+        assertEquals(6.0, doubled.callsPerHour(SimTime.of(7, 0, 0)), 0.0);
+        assertEquals(6.0, doubled.maxCallsPerHour(), 0.0);
+        // The schedule itself is unchanged
+        assertEquals(3.0, schedule.callsPerHour(SimTime.of(7, 0, 0)), 0.0);
+        assertEquals(0.0, schedule.scaled(0).maxCallsPerHour(), 0.0);
+        System.out.println("@Test - scaled");
+    }
+
+    @Test
+    public void callSourceKeepsFractionalArrivals() throws Exception {
+        // 10 calls per second, more than one call can arrive in the same second
+        DemandSchedule schedule = new DemandSchedule(new int[]{0}, new double[]{36000});
+        PoissonCallSource source = new PoissonCallSource(new City(), schedule, 0, RandomStream.of(7, "calls", 0));
+        int calls = 0;
+        long last = 0;
+        Call call;
+        while ((call = source.next()).time < SimTime.HOUR) {
+            assertTrue(call.time >= last);
+            last = call.time;
+            calls++;
+        }
+        assertEquals(36000, calls, 600);
+        System.out.println("@Test - callSourceKeepsFractionalArrivals");
+    }
+}
@@ -0,0 +1,58 @@
+package utils.simulation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RandomStreamTest {
+
+    @Test
+    public void streamsAreReproducible() throws Exception {
+        RandomStream a = RandomStream.of(42, "taxi", 3);
+        RandomStream b = RandomStream.of(42, "taxi", 3);
+        for (int i = 0; i < 100; i++)
+            assertEquals(a.nextLong(), b.nextLong());
+        assertEquals(a.nextGaussian(), b.nextGaussian(), 0.0);
+
+        assertNotEquals(RandomStream.of(42, "taxi", 3).nextLong(), RandomStream.of(42, "taxi", 4).nextLong());
+        assertNotEquals(RandomStream.of(42, "taxi", 3).nextLong(), RandomStream.of(43, "taxi", 3).nextLong());
+        assertNotEquals(RandomStream.of(42, "taxi", 0).nextLong(), RandomStream.of(42, "calls", 0).nextLong());
+        System.out.println("@Test - streamsAreReproducible");
+    }
+
+    @Test
+    public void distributions() throws Exception {
+        RandomStream random = RandomStream.of(7, "test", 0);
+        int n = 100000;
+        double sum = 0;
+        double squares = 0;
+        int hits = 0;
+        for (int i = 0; i < n; i++) {
+            double u = random.uniform(0.01, 0.2);
+            assertTrue(u >= 0.01 && u < 0.2);
+            int k = random.uniform(3, 7);
+            assertTrue(k >= 3 && k < 7);
+            double g = random.nextGaussian();
+            sum += g;
+            squares += g * g;
+            if (random.bernoulli(0.25))
+                hits++;
+        }
+        assertEquals(0.0, sum / n, 0.02);
+        assertEquals(1.0, squares / n, 0.02);
+        assertEquals(0.25, (double) hits / n, 0.01);
+        System.out.println("@Test - distributions");
+    }
+
+    @Test
+    public void substreamsDoNotDependOnDrawsBefore() throws Exception {
+        RandomStream a = RandomStream.of(42, "taxi", 3);
+        RandomStream b = RandomStream.of(42, "taxi", 3);
+        for (int i = 0; i < 10; i++)
+            b.nextLong();
+        assertEquals(a.substream(17).nextLong(), b.substream(17).nextLong());
+        assertNotEquals(a.substream(17).nextLong(), a.substream(18).nextLong());
+        assertNotEquals(a.substream(17).nextLong(), RandomStream.of(42, "taxi", 4).substream(17).nextLong());
+        System.out.println("@Test - substreamsDoNotDependOnDrawsBefore");
+    }
+}
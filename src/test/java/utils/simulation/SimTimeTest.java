@@ -0,0 +1,41 @@
+package utils.simulation;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+
+import static org.junit.Assert.*;
+
+public class SimTimeTest {
+
+    @Test
+    public void parseAndFormat() throws Exception {
+        long time = SimTime.parse("08:05:09");
+        assertEquals(SimTime.of(8, 5, 9), time);
+        assertEquals("08:05:09", SimTime.format(time));
+        assertEquals("00:00:00", SimTime.format(SimTime.DAY));
+        assertEquals(SimTime.of(23, 0, 0), SimTime.of(new SimpleDateFormat("HH:mm:ss").parse("23:00:00")));
+        System.out.println("@Test - parseAndFormat");
+    }
+
+    @Test
+    public void timeOfDay() throws Exception {
+        long time = 2 * SimTime.DAY + SimTime.of(13, 30, 15);
+        assertEquals(2, SimTime.day(time));
+        assertEquals(13, SimTime.hourOfDay(time));
+        assertEquals(30, SimTime.minuteOfHour(time));
+        assertEquals(15, SimTime.secondOfMinute(time));
+        assertEquals(SimTime.of(13, 30, 15), SimTime.secondOfDay(time));
+        System.out.println("@Test - timeOfDay");
+    }
+
+    @Test
+    public void timerCrossesMidnight() throws Exception {
+        Timer timer = new Timer(23, 59, 30, 1);
+        timer.advance(45);
+        assertEquals("00:00:15", timer.toString());
+        assertEquals(45, timer.getElapsedSeconds());
+        assertEquals(SimTime.DAY + 15, timer.now());
+        System.out.println("@Test - timerCrossesMidnight");
+    }
+}
@@ -0,0 +1,44 @@
+package utils.simulation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SweepDesignTest {
+
+    @Test
+    public void gridHasEveryCombination() throws Exception {
+        SweepParameter[] parameters = {SweepParameter.TAXIS_3AM_TO_1PM, SweepParameter.CHARGE_RATE_PER_KILOMETER};
+        SweepDesign design = SweepDesign.grid(parameters, new double[][]{{2, 4, 6}, {30, 40}});
+        assertEquals(6, design.size());
+        assertArrayEquals(new double[]{2, 30}, design.points[0], 0.0);
+        assertArrayEquals(new double[]{2, 40}, design.points[1], 0.0);
+        assertArrayEquals(new double[]{6, 40}, design.points[5], 0.0);
+
+        SimulationConfig base = new SimulationConfig();
+        SimulationConfig config = design.configure(base, 5);
+        assertArrayEquals(new int[]{6, 4, 4}, config.taxisPerShift);
+        assertEquals(40, config.chargeRatePerKilometer, 0.0);
+        assertArrayEquals("The base configuration is not changed", new int[]{4, 4, 4}, base.taxisPerShift);
+        System.out.println("@Test - gridHasEveryCombination");
+    }
+
+    @Test
+    public void latinHypercubeCoversEveryStratum() throws Exception {
+        SweepParameter[] parameters = SweepParameter.values();
+        double[] min = {1, 1, 1, 20, 3};
+        double[] max = {8, 8, 8, 60, 10};
+        int samples = 50;
+        SweepDesign design = SweepDesign.latinHypercube(parameters, min, max, samples, RandomStream.of(1, "test", 0));
+        assertEquals(samples, design.size());
+        for (int j = 0; j < parameters.length; j++) {
+            boolean[] hit = new boolean[samples];
+            for (double[] point : design.points) {
+                int stratum = (int) ((point[j] - min[j]) / (max[j] - min[j]) * samples);
+                assertFalse("Stratum " + stratum + " of " + parameters[j] + " sampled twice", hit[stratum]);
+                hit[stratum] = true;
+            }
+        }
+        System.out.println("@Test - latinHypercubeCoversEveryStratum");
+    }
+}
@@ -0,0 +1,72 @@
+package utils.simulation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class TimerTest {
+
+    private static EventHandler record(final ArrayList<Long> handled) {
+        return new EventHandler() {
+            public void handle(SimEvent event) {
+                handled.add(event.time);
+            }
+        };
+    }
+
+    @Test
+    public void nextEventStopsAtHorizon() throws Exception {
+        Timer timer = new Timer(1000, 1);
+        ArrayList<Long> handled = new ArrayList<>();
+        timer.schedule(1030, EventType.DROPOFF, record(handled));
+        timer.setHorizon(30);
+        timer.schedule(1010, EventType.CALL_ARRIVAL, record(handled));
+        timer.schedule(1030, EventType.PICKUP, record(handled));
+        timer.schedule(1031, EventType.CALL_ARRIVAL, record(handled));
+        timer.schedule(1500, EventType.DROPOFF, record(handled));
+        while (timer.advanceToNextEvent()) {
+            assertTrue(timer.now() <= 1030);
+        }
+        assertTrue(timer.hasEnded());
+        assertEquals(1030, timer.now());
+        assertEquals(30, timer.getElapsedSeconds());
+        // The event at the horizon scheduled before it is handled, the later ones are not
+        assertEquals(2, handled.size());
+        assertEquals(1030L, (long) handled.get(1));
+        assertEquals(1, timer.getFired(EventType.CALL_ARRIVAL));
+        assertEquals(0, timer.getFired(EventType.PICKUP));
+        assertEquals(1, timer.getFired(EventType.HORIZON));
+        System.out.println("@Test - nextEventStopsAtHorizon");
+    }
+
+    @Test
+    public void ticksStopAtHorizon() throws Exception {
+        Timer timer = new Timer(0, 7);
+        timer.setHorizon(20);
+        ArrayList<Long> handled = new ArrayList<>();
+        timer.schedule(21, EventType.PICKUP, record(handled));
+        for (int i = 0; i < 10; i++) {
+            timer.tick();
+            timer.wakeUp();
+        }
+        assertEquals(20, timer.now());
+        assertTrue(timer.hasEnded());
+        assertTrue(handled.isEmpty());
+        System.out.println("@Test - ticksStopAtHorizon");
+    }
+
+    @Test
+    public void fractionalTicksKeepTheRate() throws Exception {
+        Timer quarter = new Timer(0, 0.25);
+        Timer oneAndAHalf = new Timer(0, 1.5);
+        for (int i = 0; i < 1000; i++) {
+            quarter.tick();
+            oneAndAHalf.tick();
+        }
+        assertEquals(250, quarter.now());
+        assertEquals(1500, oneAndAHalf.now());
+        System.out.println("@Test - fractionalTicksKeepTheRate");
+    }
+}
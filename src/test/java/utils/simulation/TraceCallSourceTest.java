@@ -0,0 +1,59 @@
+package utils.simulation;
+
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+
+import static org.junit.Assert.*;
+
+public class TraceCallSourceTest {
+
+    @Test
+    public void replayCsv() throws Exception {
+        File trace = File.createTempFile("calls", ".csv");
+        trace.deleteOnExit();
+        try (FileWriter out = new FileWriter(trace)) {
+            out.write("time,origin,destination\n");
+            out.write("23:59:00,3,40\n");
+            out.write("\n");
+            out.write("00:01:00,5,41\n");
+        }
+        TraceCallSource source = new TraceCallSource(trace.getPath(), 1000, 0.5);
+        Call call = source.next();
+        assertEquals(1000, call.time);
+        assertEquals(3, call.origin);
+        assertEquals(40, call.destination);
+        // The time of day goes back, so the second call is two minutes later on the next day
+        call = source.next();
+        assertEquals(1060, call.time);
+        assertEquals(5, call.origin);
+        assertNull(source.next());
+        source.close();
+        System.out.println("@Test - replayCsv");
+    }
+
+    @Test
+    public void replayBinary() throws Exception {
+        File trace = File.createTempFile("calls", ".bin");
+        trace.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(trace)))) {
+            TraceCallSource.write(out, 1466000000L, 1, 2);
+            TraceCallSource.write(out, 1466000300L, 4, 8);
+            TraceCallSource.write(out, 1466000200L, 6, 9);
+        }
+        TraceCallSource source = new TraceCallSource(trace.getPath(), 0, 1);
+        assertEquals(0, source.next().time);
+        assertEquals(300, source.next().time);
+        // Out of order records are replayed right after the previous one
+        Call call = source.next();
+        assertEquals(300, call.time);
+        assertEquals(9, call.destination);
+        assertNull(source.next());
+        source.close();
+        System.out.println("@Test - replayBinary");
+    }
+}
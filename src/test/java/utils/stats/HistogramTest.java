@@ -0,0 +1,55 @@
+package utils.stats;
+
+import org.junit.Test;
+import utils.simulation.RandomStream;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void percentilesWithinPrecision() throws Exception {
+        RandomStream random = RandomStream.of(7, "histogram", 0);
+        Histogram histogram = new Histogram(1000000);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (-600 * Math.log(1 - random.nextDouble()));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double p : new double[]{50, 95, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            assertEquals("p" + p, exact, histogram.percentile(p), Math.max(1, exact / 128.0));
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[0], (long) histogram.percentile(0));
+        assertEquals(1.0, histogram.fractionAtOrBelow(histogram.getMax()), 0.0);
+        System.out.println("@Test - percentilesWithinPrecision");
+    }
+
+    @Test
+    public void mergedEqualsRecordedTogether() throws Exception {
+        Histogram a = new Histogram(3600);
+        Histogram b = new Histogram(3600);
+        Histogram all = new Histogram(3600);
+        for (long v = 0; v < 5000; v += 7) {
+            (v % 2 == 0 ? a : b).record(v);
+            all.record(v);
+        }
+        a.merge(b);
+        assertEquals(all.getCount(), a.getCount());
+        assertEquals(all.getMean(), a.getMean(), 1e-9);
+        for (double p : new double[]{1, 50, 95, 99, 100})
+            assertEquals(all.percentile(p), a.percentile(p), 0.0);
+        assertEquals(all.fractionAtOrBelow(300), a.fractionAtOrBelow(300), 0.0);
+        try {
+            a.merge(new Histogram(3600, 4));
+            fail("Merged histograms of different layouts");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+        System.out.println("@Test - mergedEqualsRecordedTogether");
+    }
+}
@@ -0,0 +1,31 @@
+package utils.stats;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MserTest {
+
+    @Test
+    public void dropsTheTransient() throws Exception {
+        Random random = new Random(3);
+        double[] series = new double[200];
+        for (int i = 0; i < series.length; i++) {
+            // Starts at 0 and settles around 10 after about 40 observations
+            double level = 10 * (1 - Math.exp(-i / 8.0));
+            series[i] = level + random.nextGaussian();
+        }
+        int d = Mser.truncation(series, series.length, 5);
+        assertEquals(0, d % 5);
+        assertTrue("Truncated " + d, d >= 20 && d <= 60);
+
+        double[] stationary = new double[200];
+        for (int i = 0; i < stationary.length; i++)
+            stationary[i] = 10 + random.nextGaussian();
+        assertTrue(Mser.truncation(stationary, stationary.length, 5) <= 50);
+        assertEquals(0, Mser.truncation(series, 9, 5));
+        System.out.println("@Test - dropsTheTransient");
+    }
+}
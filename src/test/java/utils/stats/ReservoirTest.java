@@ -0,0 +1,27 @@
+package utils.stats;
+
+import org.junit.Test;
+import utils.simulation.RandomStream;
+
+import static org.junit.Assert.*;
+
+public class ReservoirTest {
+
+    @Test
+    public void sampleIsBoundedAndUniform() throws Exception {
+        int[] kept = new int[100];
+        for (int trial = 0; trial < 2000; trial++) {
+            Reservoir<Integer> reservoir = new Reservoir<>(10, RandomStream.of(trial, "reservoir", 0));
+            for (int i = 0; i < kept.length; i++)
+                reservoir.add(i);
+            assertEquals(10, reservoir.size());
+            assertEquals(kept.length, reservoir.getSeen());
+            for (int i = 0; i < reservoir.size(); i++)
+                kept[reservoir.get(i)]++;
+        }
+        // Every item is kept with probability 10/100, 200 times in 2000 trials
+        for (int count : kept)
+            assertEquals(200, count, 60);
+        System.out.println("@Test - sampleIsBoundedAndUniform");
+    }
+}
@@ -0,0 +1,25 @@
+package utils.stats;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RunningStatsTest {
+
+    @Test
+    public void meanAndVariance() throws Exception {
+        RunningStats stats = new RunningStats();
+        assertTrue(Double.isNaN(stats.getMean()));
+        double[] xs = {2, 4, 4, 4, 5, 5, 7, 9};
+        for (double x : xs)
+            stats.add(x);
+        assertEquals(8, stats.getCount());
+        assertEquals(5.0, stats.getMean(), 1e-12);
+        assertEquals(32.0 / 7, stats.getVariance(), 1e-12);
+        assertEquals(2.0, stats.getMin(), 0.0);
+        assertEquals(9.0, stats.getMax(), 0.0);
+        // t(0.975, 7) = 2.365
+        assertEquals(2.365 * Math.sqrt(32.0 / 7 / 8), stats.getHalfWidth95(), 1e-9);
+        System.out.println("@Test - meanAndVariance");
+    }
+}
@@ -0,0 +1,63 @@
+package utils.trace;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class TraceTest {
+
+    @Test
+    public void recordsAreReadBack() throws Exception {
+        for (boolean compress : new boolean[]{false, true}) {
+            File file = File.createTempFile("trace", ".trc");
+            file.deleteOnExit();
+            int n = TraceWriter.BLOCK_ROWS + 100;
+            TraceWriter writer = new TraceWriter(file.getPath(), compress);
+            for (int i = 0; i < n; i++) {
+                writer.call(28800L + i, i, i % 50, 200 + i % 7);
+                if (i % 3 == 0)
+                    writer.award(28800L + i, i, i % 12, 10.5 + i, 1.25, 2, 0);
+            }
+            writer.dropped(30000, 7);
+            writer.close();
+            writer.pickup(1, 1, 1, 1); // Ignored after close
+
+            TraceTable calls = TraceReader.readAll(file.getPath(), RecordType.CALL);
+            assertEquals(n, calls.size());
+            int origin = RecordType.CALL.column("origin");
+            for (int i = 0; i < n; i++) {
+                assertEquals(28800L + i, calls.getLong(0, i));
+                assertEquals(i % 50, calls.getInt(origin, i));
+            }
+            TraceTable awards = TraceReader.readAll(file.getPath(), RecordType.AWARD);
+            assertEquals((n + 2) / 3, awards.size());
+            assertEquals(10.5 + 3, awards.getDouble(RecordType.AWARD.column("price"), 1), 0.0);
+            assertEquals(0, TraceReader.readAll(file.getPath(), RecordType.PICKUP).size());
+
+            StringWriter csv = new StringWriter();
+            assertEquals(1, TraceCsv.export(file.getPath(), RecordType.DROPPED, csv));
+            assertEquals("time,passenger\n30000,7\n", csv.toString());
+        }
+        System.out.println("@Test - recordsAreReadBack");
+    }
+
+    @Test
+    public void blocksAreReusedInOrder() throws Exception {
+        File file = File.createTempFile("trace", ".trc");
+        file.deleteOnExit();
+        int n = TraceWriter.BLOCK_ROWS * (TraceWriter.SPARE_BLOCKS + 1) * 3 + 7;
+        TraceWriter writer = new TraceWriter(file.getPath(), true);
+        for (int i = 0; i < n; i++)
+            writer.pickup(i, i, i % 9, i % 60);
+        writer.close();
+
+        TraceTable pickups = TraceReader.readAll(file.getPath(), RecordType.PICKUP);
+        assertEquals(n, pickups.size());
+        for (int i = 0; i < n; i++)
+            assertEquals(i, pickups.getLong(0, i));
+        System.out.println("@Test - blocksAreReusedInOrder");
+    }
+}